@@ -4,6 +4,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.3.5"
     id("io.spring.dependency-management") version "1.1.6"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.bookstore"
@@ -43,6 +44,8 @@ dependencies {
     implementation("org.mapstruct:mapstruct:1.5.5.Final")
     implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.5.0")
     implementation("net.logstash.logback:logstash-logback-encoder:7.4")
+    // Ed25519 signing for EdDSA access tokens; an optional dependency of nimbus-jose-jwt
+    implementation("com.google.crypto.tink:tink:1.12.0")
     
     compileOnly("org.projectlombok:lombok:1.18.32")
     annotationProcessor("org.projectlombok:lombok:1.18.32")
@@ -67,6 +70,14 @@ tasks.withType<JavaCompile> {
     options.compilerArgs.add("-parameters")
 }
 
+jmh {
+    jmhVersion.set("1.37")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+}
+
 tasks.named<BootJar>("bootJar") {
     archiveFileName.set("bookstore-api.jar")
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.security.CachingAuthenticationProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authentications per second on one thread, i.e. per core, for the BCrypt provider the basic profile
+ * used before and for the caching provider on a warm cache. Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class BasicAuthenticationBenchmark {
+    
+    private DaoAuthenticationProvider bcryptOnly;
+    private CachingAuthenticationProvider caching;
+    
+    @Setup
+    public void setUp() {
+        // Same cost factor as the production encoder
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(User.withUsername("user")
+            .password(passwordEncoder.encode("user123"))
+            .roles("USER")
+            .build());
+        
+        bcryptOnly = new DaoAuthenticationProvider(passwordEncoder);
+        bcryptOnly.setUserDetailsService(users);
+        caching = new CachingAuthenticationProvider(bcryptOnly, users, Duration.ofMinutes(5), 10_000);
+        caching.authenticate(credentials());
+    }
+    
+    @Benchmark
+    public Authentication bcryptPerRequest() {
+        return bcryptOnly.authenticate(credentials());
+    }
+    
+    @Benchmark
+    public Authentication cachedVerification() {
+        return caching.authenticate(credentials());
+    }
+    
+    private static UsernamePasswordAuthenticationToken credentials() {
+        return UsernamePasswordAuthenticationToken.unauthenticated("user", "user123");
+    }
+}
@@ -0,0 +1,72 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.security.JwkSetJwtDecoders;
+import com.bookstore.security.JwtAlgorithm;
+import com.bookstore.security.SigningKeyJwtEncoder;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token signs and verifies per second on one thread for each supported algorithm, using the same
+ * encoder and (uncached) decoder as the jwt profile. Sign throughput bounds login bursts, verify
+ * throughput bounds first use of each token. Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class JwtAlgorithmBenchmark {
+    
+    @Param({"RS256", "ES256", "EdDSA"})
+    private JwtAlgorithm algorithm;
+    
+    private SigningKeyJwtEncoder encoder;
+    private JwtDecoder decoder;
+    private JwtEncoderParameters parameters;
+    private String token;
+    
+    @Setup
+    public void setUp() throws Exception {
+        JWK key = algorithm.generateKey("benchmark");
+        encoder = new SigningKeyJwtEncoder(key);
+        decoder = JwkSetJwtDecoders.fromJwkSet(new JWKSet(key));
+        
+        // Same claims as AuthServiceImpl issues
+        Instant now = Instant.now();
+        parameters = JwtEncoderParameters.from(JwtClaimsSet.builder()
+            .issuer("bookstore-api")
+            .issuedAt(now)
+            .expiresAt(now.plusSeconds(3600))
+            .subject("user")
+            .claim("roles", List.of("USER"))
+            .build());
+        token = encoder.encode(parameters).getTokenValue();
+    }
+    
+    @Benchmark
+    public Jwt sign() {
+        return encoder.encode(parameters);
+    }
+    
+    @Benchmark
+    public Jwt verify() {
+        return decoder.decode(token);
+    }
+}
@@ -0,0 +1,44 @@
+package com.bookstore.actuator;
+
+import com.bookstore.dto.InventoryStatsDto;
+import com.bookstore.repository.BookRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Catalogue-wide stock totals and valuation, computed in one aggregate query and cached briefly so
+ * dashboards refreshing every few seconds do not rescan the books table.
+ */
+@Component
+@Endpoint(id = "inventory-stats")
+public class InventoryStatsEndpoint {
+    
+    private static final String KEY = "inventory-stats";
+    
+    private final BookRepository bookRepository;
+    // Caffeine runs one load per key at a time, so concurrent refreshes share a single query
+    private final Cache<String, InventoryStatsDto> cache;
+    
+    public InventoryStatsEndpoint(
+        BookRepository bookRepository,
+        @Value("${app.inventory.stats-cache-ttl:PT10S}") Duration cacheTtl
+    ) {
+        this.bookRepository = bookRepository;
+        this.cache = Caffeine.newBuilder()
+            .expireAfterWrite(cacheTtl)
+            .maximumSize(1)
+            .build();
+    }
+    
+    @ReadOperation
+    public InventoryStatsDto inventoryStats() {
+        return cache.get(KEY, key -> InventoryStatsDto.of(bookRepository.getInventorySnapshot(), Instant.now()));
+    }
+}
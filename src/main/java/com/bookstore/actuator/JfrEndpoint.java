@@ -0,0 +1,82 @@
+package com.bookstore.actuator;
+
+import com.bookstore.observability.jfr.JfrRecordingManager;
+import com.bookstore.observability.jfr.JfrRecordingManager.RecordingInfo;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * On-demand Flight Recorder recordings: {@code POST /actuator/jfr} starts one with a settings profile,
+ * {@code POST /actuator/jfr/{id}} stops it, {@code GET /actuator/jfr/{id}} downloads what has been
+ * recorded so far and {@code DELETE /actuator/jfr/{id}} discards it.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class JfrEndpoint {
+    
+    private final JfrRecordingManager recordingManager;
+    
+    public JfrEndpoint(JfrRecordingManager recordingManager) {
+        this.recordingManager = recordingManager;
+    }
+    
+    @ReadOperation
+    public WebEndpointResponse<List<RecordingInfo>> recordings() {
+        if (!recordingManager.isAvailable()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        return new WebEndpointResponse<>(recordingManager.recordings());
+    }
+    
+    @WriteOperation
+    public WebEndpointResponse<RecordingInfo> start(@Nullable String profile, @Nullable Duration duration, 
+                                                    @Nullable String name) {
+        if (!recordingManager.isAvailable()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        try {
+            return new WebEndpointResponse<>(
+                recordingManager.start(profile != null ? profile : "default", duration, name));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidEndpointRequestException(ex.getMessage(), ex.getMessage());
+        }
+    }
+    
+    @WriteOperation
+    public WebEndpointResponse<RecordingInfo> stop(@Selector long id) {
+        return recordingManager.stop(id)
+            .map(WebEndpointResponse::new)
+            .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+    
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> download(@Selector long id) throws IOException {
+        try {
+            return recordingManager.dump(id)
+                .<WebEndpointResponse<Resource>>map(path -> new WebEndpointResponse<>(new FileSystemResource(path)))
+                .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+        } catch (IllegalStateException ex) {
+            throw new InvalidEndpointRequestException(ex.getMessage(), ex.getMessage());
+        }
+    }
+    
+    @DeleteOperation
+    public WebEndpointResponse<Void> discard(@Selector long id) throws IOException {
+        return new WebEndpointResponse<>(recordingManager.close(id)
+            ? WebEndpointResponse.STATUS_NO_CONTENT 
+            : WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+}
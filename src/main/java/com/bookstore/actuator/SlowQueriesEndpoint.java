@@ -0,0 +1,33 @@
+package com.bookstore.actuator;
+
+import com.bookstore.observability.SlowQueryStore;
+import com.bookstore.observability.SlowQueryStore.SlowQuery;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * Recent SQL statements over the slow-query threshold, slowest first, with bind parameters and, for
+ * sampled statements, the captured execution plan
+ */
+@Endpoint(id = "slow-queries")
+public class SlowQueriesEndpoint {
+    
+    private final SlowQueryStore store;
+    
+    public SlowQueriesEndpoint(SlowQueryStore store) {
+        this.store = store;
+    }
+    
+    @ReadOperation
+    public List<SlowQuery> slowQueries() {
+        return store.snapshot();
+    }
+    
+    @DeleteOperation
+    public void clear() {
+        store.clear();
+    }
+}
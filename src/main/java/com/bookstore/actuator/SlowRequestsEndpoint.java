@@ -0,0 +1,37 @@
+package com.bookstore.actuator;
+
+import com.bookstore.observability.SlowRequestRecorder;
+import com.bookstore.observability.SlowRequestRecorder.SlowRequest;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Recent requests over the slow-request threshold, slowest first, with their database time breakdown.
+ * The trace id links each entry to its log lines and to the latency histogram exemplars.
+ */
+@Endpoint(id = "slow-requests")
+public class SlowRequestsEndpoint {
+    
+    private final SlowRequestRecorder recorder;
+    
+    public SlowRequestsEndpoint(SlowRequestRecorder recorder) {
+        this.recorder = recorder;
+    }
+    
+    @ReadOperation
+    public SlowRequestsReport slowRequests() {
+        return new SlowRequestsReport(recorder.getThreshold(), recorder.snapshot());
+    }
+    
+    @DeleteOperation
+    public void clear() {
+        recorder.clear();
+    }
+    
+    public record SlowRequestsReport(Duration threshold, List<SlowRequest> requests) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.bookstore.actuator;
+
+import com.bookstore.observability.tracing.SpanData;
+import com.bookstore.observability.tracing.SpanRecorder;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Recently recorded requests and, per trace id, the span tree showing where a request spent its time
+ */
+@Endpoint(id = "traces")
+public class TracesEndpoint {
+    
+    private static final int RECENT_LIMIT = 50;
+    
+    private final SpanRecorder spanRecorder;
+    
+    public TracesEndpoint(SpanRecorder spanRecorder) {
+        this.spanRecorder = spanRecorder;
+    }
+    
+    @ReadOperation
+    public List<SpanNode> recentRequests() {
+        return spanRecorder.recentRequests(RECENT_LIMIT).stream()
+            .map(span -> SpanNode.of(span, List.of()))
+            .toList();
+    }
+    
+    @ReadOperation
+    public List<SpanNode> trace(@Selector String traceId) {
+        List<SpanData> spans = spanRecorder.findTrace(traceId);
+        if (spans.isEmpty()) {
+            return null;
+        }
+        Set<String> recorded = spans.stream().map(SpanData::spanId).collect(Collectors.toSet());
+        Map<String, List<SpanData>> children = new HashMap<>();
+        List<SpanData> roots = new ArrayList<>();
+        for (SpanData span : spans) {
+            // Spans whose parent was the remote caller, or was already overwritten, become roots
+            if (span.parentSpanId() != null && recorded.contains(span.parentSpanId())) {
+                children.computeIfAbsent(span.parentSpanId(), id -> new ArrayList<>()).add(span);
+            } else {
+                roots.add(span);
+            }
+        }
+        return roots.stream().map(root -> toNode(root, children)).toList();
+    }
+    
+    private static SpanNode toNode(SpanData span, Map<String, List<SpanData>> children) {
+        return SpanNode.of(span, children.getOrDefault(span.spanId(), List.of()).stream()
+            .map(child -> toNode(child, children))
+            .toList());
+    }
+    
+    public record SpanNode(
+        String traceId,
+        String spanId,
+        String name,
+        String kind,
+        Instant start,
+        double durationMs,
+        Map<String, String> attributes,
+        String error,
+        List<SpanNode> children
+    ) {
+        
+        static SpanNode of(SpanData span, List<SpanNode> children) {
+            Instant start = Instant.ofEpochSecond(0, span.startEpochNanos());
+            return new SpanNode(span.traceId(), span.spanId(), span.name(), span.kind().name(), start,
+                span.durationNanos() / 1_000_000.0, span.attributes(), span.error(), children);
+        }
+    }
+}
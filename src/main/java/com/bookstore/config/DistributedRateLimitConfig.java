@@ -0,0 +1,44 @@
+package com.bookstore.config;
+
+import com.bookstore.ratelimit.DistributedRateLimiter;
+import com.bookstore.ratelimit.RateLimitBucketStore;
+import com.bookstore.ratelimit.RateLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Shares rate limits across instances through PostgreSQL, so the limit holds regardless of how many
+ * instances run behind the load balancer.
+ */
+@Configuration
+@ConditionalOnProperty(name = "rate-limit.distributed.enabled", havingValue = "true")
+public class DistributedRateLimitConfig {
+    
+    @Bean
+    public RateLimitBucketStore rateLimitBucketStore(
+        DataSource dataSource,
+        @Value("${rate-limit.distributed.query-timeout:PT1S}") Duration queryTimeout
+    ) {
+        return new RateLimitBucketStore(dataSource, queryTimeout);
+    }
+    
+    @Bean
+    public DistributedRateLimiter distributedRateLimiter(
+        RateLimitBucketStore rateLimitBucketStore,
+        RateLimitProperties rateLimitProperties,
+        MeterRegistry meterRegistry,
+        @Value("${rate-limit.distributed.prefetch:10}") long prefetch,
+        @Value("${rate-limit.distributed.slow-threshold:PT0.05S}") Duration slowThreshold,
+        @Value("${rate-limit.distributed.fallback-cooldown:PT30S}") Duration fallbackCooldown,
+        @Value("${rate-limit.cache.max-size:10000}") long maxKeys
+    ) {
+        return new DistributedRateLimiter(rateLimitBucketStore, rateLimitProperties.period(), prefetch,
+            slowThreshold, fallbackCooldown, maxKeys, meterRegistry);
+    }
+}
@@ -1,10 +1,19 @@
 package com.bookstore.config;
 
+import com.bookstore.security.CachingGrantedAuthoritiesConverter;
+import com.bookstore.security.CachingJwtDecoder;
+import com.bookstore.security.JwkSetJwtDecoders;
+import com.bookstore.security.JwtAlgorithm;
+import com.bookstore.security.JwtKeyLoader;
+import com.bookstore.ratelimit.VerifiedPrincipalLookup;
+import com.bookstore.security.RevocationCheckingJwtDecoder;
+import com.bookstore.security.SigningKeyJwtEncoder;
+import com.bookstore.service.TokenRevocationService;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
-import com.nimbusds.jose.jwk.source.JWKSource;
-import com.nimbusds.jose.proc.SecurityContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -21,20 +30,19 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.util.StringUtils;
 
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.NoSuchAlgorithmException;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
@@ -58,9 +66,30 @@ public class JwtSecurityConfig {
     @Value("${USER_PASSWORD:user123}")
     private String userPassword;
 
-    @Value("${JWT_SIGNING_KEY:}")
+    @Value("${app.security.jwt.algorithm:RS256}")
+    private JwtAlgorithm jwtAlgorithm;
+
+    @Value("${app.security.jwt.signing-key.location:}")
     private String jwtSigningKey;
 
+    @Value("${app.security.jwt.signing-key.id:}")
+    private String jwtKeyId;
+
+    @Value("${app.security.jwt.signing-key.keystore-password:}")
+    private String jwtKeystorePassword;
+
+    @Value("${app.security.jwt.signing-key.keystore-alias:}")
+    private String jwtKeystoreAlias;
+
+    @Value("${app.security.jwt.verification-keys:}")
+    private String jwtVerificationKeys;
+
+    @Value("${app.security.jwt-cache.max-size:10000}")
+    private long jwtCacheMaxSize;
+
+    @Value("${app.security.jwt-cache.expiry-margin:PT5S}")
+    private Duration jwtCacheExpiryMargin;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         return http
@@ -70,6 +99,7 @@ public class JwtSecurityConfig {
                 // Public endpoints
                 .requestMatchers(
                     "/api/auth/**",
+                    "/.well-known/jwks.json",
                     "/swagger-ui/**",
                     "/v3/api-docs/**",
                     "/actuator/health",
@@ -120,57 +150,79 @@ public class JwtSecurityConfig {
     }
 
     @Bean
-    public KeyPair keyPair() {
+    public JWKSet jwkSet() {
+        List<JWK> keys = new ArrayList<>();
+        keys.add(signingKey());
+        
+        // Retired signing keys stay here until every token they signed has expired
+        for (String entry : StringUtils.commaDelimitedListToStringArray(jwtVerificationKeys)) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            keys.add(JwtKeyLoader.loadVerificationKeyEntry(entry));
+        }
+        
+        log.info("JWT signing key id: {}, accepted key ids: {}", keys.get(0).getKeyID(),
+            keys.stream().map(JWK::getKeyID).toList());
+        return new JWKSet(keys);
+    }
+
+    private JWK signingKey() {
         if (StringUtils.hasText(jwtSigningKey)) {
-            // In production, use persistent key from environment
-            // For demo purposes, we'll still generate but log a warning
-            log.warn("JWT signing key provided via environment - using persistent key storage is recommended");
-            // TODO: Implement proper key loading from environment/external store
+            JWK key = JwtKeyLoader.loadSigningKey(jwtSigningKey, jwtKeyId, jwtKeystorePassword, jwtKeystoreAlias);
+            if (JwtAlgorithm.forJwk(key) != jwtAlgorithm) {
+                throw new IllegalStateException("JWT algorithm is " + jwtAlgorithm + " but the configured signing key is for "
+                    + JwtAlgorithm.forJwk(key));
+            }
+            return key;
         }
         
         try {
-            // Generate RSA key pair
-            // In production: load from secure key store, environment, or external service
-            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-            keyPairGenerator.initialize(2048);
-            KeyPair keyPair = keyPairGenerator.generateKeyPair();
+            JWK key = jwtAlgorithm.generateKey("bookstore-jwt-key-" + UUID.randomUUID());
             
-            log.warn("JWT keys generated at runtime - tokens will be invalid after restart. " +
-                    "Use persistent key storage in production.");
+            log.warn("JWT_SIGNING_KEY is not set - generated a temporary {} key. Tokens will be rejected " +
+                    "by other nodes and after a restart.", jwtAlgorithm);
             
-            return keyPair;
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("Unable to generate RSA key pair", e);
+            return key;
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Unable to generate " + jwtAlgorithm + " key", e);
         }
     }
 
     @Bean
-    public RSAKey rsaKey(KeyPair keyPair) {
-        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
-        RSAPrivateKey privateKey = (RSAPrivateKey) keyPair.getPrivate();
-        
-        return new RSAKey.Builder(publicKey)
-            .privateKey(privateKey)
-            .keyID("bookstore-jwt-key-" + UUID.randomUUID().toString())
-            .build();
-    }
-
-    @Bean
-    public JWKSource<SecurityContext> jwkSource(RSAKey rsaKey) {
-        JWKSet jwkSet = new JWKSet(rsaKey);
-        return new ImmutableJWKSet<>(jwkSet);
+    public RevocationCheckingJwtDecoder jwtDecoder(JWKSet jwkSet, MeterRegistry meterRegistry,
+                                                   TokenRevocationService tokenRevocationService) {
+        NimbusJwtDecoder nimbusDecoder = JwkSetJwtDecoders.fromJwkSet(jwkSet);
+        // Clients reuse a token for up to an hour; only its first use pays for signature verification
+        CachingJwtDecoder decoder = new CachingJwtDecoder(nimbusDecoder, jwtCacheMaxSize, jwtCacheExpiryMargin);
+        CaffeineCacheMetrics.monitor(meterRegistry, decoder.getCache(), "jwt.verifications");
+        return new RevocationCheckingJwtDecoder(decoder, tokenRevocationService);
     }
 
     @Bean
-    public JwtDecoder jwtDecoder(RSAKey rsaKey) throws Exception {
-        return NimbusJwtDecoder
-            .withPublicKey(rsaKey.toRSAPublicKey())
-            .build();
+    public VerifiedPrincipalLookup verifiedPrincipalLookup(RevocationCheckingJwtDecoder jwtDecoder,
+                                                           JwtAuthenticationConverter jwtAuthenticationConverter) {
+        // Tokens not yet in the verification cache are limited by IP until their first successful use
+        BearerTokenResolver bearerTokenResolver = new DefaultBearerTokenResolver();
+        return request -> {
+            try {
+                String token = bearerTokenResolver.resolve(request);
+                Jwt jwt = token != null ? jwtDecoder.peek(token) : null;
+                return jwt != null ? jwtAuthenticationConverter.convert(jwt) : null;
+            } catch (OAuth2AuthenticationException e) {
+                return null;
+            }
+        };
     }
 
     @Bean
-    public JwtEncoder jwtEncoder(JWKSource<SecurityContext> jwkSource) {
-        return new NimbusJwtEncoder(jwkSource);
+    public JwtEncoder jwtEncoder(JWKSet jwkSet) {
+        // Only the current key signs; it is the one entry holding private material
+        JWK signingKey = jwkSet.getKeys().stream()
+            .filter(JWK::isPrivate)
+            .findFirst()
+            .orElseThrow();
+        return new SigningKeyJwtEncoder(signingKey);
     }
     
     @Bean
@@ -178,7 +230,7 @@ public class JwtSecurityConfig {
         org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter converter = 
             new org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter();
         
-        converter.setJwtGrantedAuthoritiesConverter(jwt -> {
+        converter.setJwtGrantedAuthoritiesConverter(new CachingGrantedAuthoritiesConverter(jwt -> {
             // Extract roles from JWT claims
             Collection<String> roles = null;
             
@@ -205,7 +257,7 @@ public class JwtSecurityConfig {
             }
             
             return List.of();
-        });
+        }, jwtCacheMaxSize));
         
         return converter;
     }
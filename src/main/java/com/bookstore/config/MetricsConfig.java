@@ -1,8 +1,10 @@
 package com.bookstore.config;
 
+import com.bookstore.observability.MdcSpanContext;
 import io.micrometer.core.aop.TimedAspect;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.prometheus.metrics.tracer.common.SpanContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
@@ -16,6 +18,11 @@ public class MetricsConfig {
         return new TimedAspect(registry);
     }
     
+    @Bean
+    public SpanContext mdcSpanContext() {
+        return new MdcSpanContext();
+    }
+    
     @Bean
     public Timer.Sample bookSearchTimer(MeterRegistry registry) {
         return Timer.start(registry);
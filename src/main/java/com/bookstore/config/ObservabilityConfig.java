@@ -0,0 +1,105 @@
+package com.bookstore.config;
+
+import com.bookstore.actuator.SlowQueriesEndpoint;
+import com.bookstore.actuator.SlowRequestsEndpoint;
+import com.bookstore.observability.JdbcExecutionListener;
+import com.bookstore.observability.ObservedDataSource;
+import com.bookstore.observability.QueryStatsFilter;
+import com.bookstore.observability.SlowQueryListener;
+import com.bookstore.observability.SlowQueryStore;
+import com.bookstore.observability.SlowRequestRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.function.SingletonSupplier;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+@Configuration
+@ConditionalOnProperty(name = "app.observability.query-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class ObservabilityConfig {
+    
+    // Static so the post-processor is created before the DataSource it wraps
+    @Bean
+    public static BeanPostProcessor observedDataSourcePostProcessor(
+            ObjectProvider<JdbcExecutionListener> listeners,
+            @Value("${app.observability.slow-queries.enabled:true}") boolean captureParameters) {
+        // Listeners are resolved on first use so that wrapping the DataSource does not initialise them early
+        SingletonSupplier<List<JdbcExecutionListener>> resolved = 
+            SingletonSupplier.of(() -> listeners.orderedStream().toList());
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ObservedDataSource)) {
+                    // Bind parameters are only needed by the slow-query log
+                    return new ObservedDataSource(dataSource, resolved, captureParameters);
+                }
+                return bean;
+            }
+        };
+    }
+    
+    @Bean
+    public SlowQueryStore slowQueryStore(@Value("${app.observability.slow-queries.capacity:200}") int capacity) {
+        return new SlowQueryStore(capacity);
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "app.observability.slow-queries.enabled", havingValue = "true", matchIfMissing = true)
+    public SlowQueryListener slowQueryListener(
+            SlowQueryStore slowQueryStore,
+            ObjectProvider<DataSource> dataSource,
+            @Value("${app.observability.slow-queries.threshold:PT0.2S}") Duration threshold,
+            @Value("${app.observability.slow-queries.explain.sample-rate:0.1}") double explainSampleRate,
+            @Value("${app.observability.slow-queries.explain.timeout:PT5S}") Duration explainTimeout,
+            @Value("${app.observability.slow-queries.explain.cooldown:PT10M}") Duration explainCooldown,
+            @Value("${app.observability.slow-queries.max-parameter-length:200}") int maxParameterLength) {
+        // Plans are captured on the unwrapped pool so the EXPLAIN itself is neither counted nor logged
+        Supplier<DataSource> explainDataSource = SingletonSupplier.of(() -> 
+            dataSource.getObject() instanceof ObservedDataSource observed 
+                ? observed.getTargetDataSource() : dataSource.getObject());
+        return new SlowQueryListener(slowQueryStore, explainDataSource, threshold, 
+            explainSampleRate, explainTimeout, explainCooldown, maxParameterLength);
+    }
+    
+    @Bean
+    public SlowQueriesEndpoint slowQueriesEndpoint(SlowQueryStore slowQueryStore) {
+        return new SlowQueriesEndpoint(slowQueryStore);
+    }
+    
+    @Bean
+    public SlowRequestRecorder slowRequestRecorder(
+            @Value("${app.observability.slow-requests.threshold:PT0.5S}") Duration threshold,
+            @Value("${app.observability.slow-requests.capacity:100}") int capacity) {
+        return new SlowRequestRecorder(threshold, capacity);
+    }
+    
+    @Bean
+    public SlowRequestsEndpoint slowRequestsEndpoint(SlowRequestRecorder slowRequestRecorder) {
+        return new SlowRequestsEndpoint(slowRequestRecorder);
+    }
+    
+    @Bean
+    public FilterRegistrationBean<QueryStatsFilter> queryStatsFilter(
+            MeterRegistry meterRegistry,
+            SlowRequestRecorder slowRequestRecorder,
+            @Value("${app.observability.query-stats.header-enabled:false}") boolean headerEnabled,
+            @Value("${app.observability.query-stats.statement-budget:25}") int statementBudget,
+            @Value("${app.observability.query-stats.repeated-statement-threshold:10}") int repeatedStatementThreshold) {
+        FilterRegistrationBean<QueryStatsFilter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(new QueryStatsFilter(
+            meterRegistry, slowRequestRecorder, headerEnabled, statementBudget, repeatedStatementThreshold));
+        registrationBean.addUrlPatterns("/api/*");
+        // Inside the trace id filter so warnings carry the trace id, outside idempotency so its lookups count
+        registrationBean.setOrder(2);
+        return registrationBean;
+    }
+}
@@ -0,0 +1,72 @@
+package com.bookstore.config;
+
+import com.bookstore.actuator.TracesEndpoint;
+import com.bookstore.observability.tracing.FlushSpanListener;
+import com.bookstore.observability.tracing.OtlpSpanExporter;
+import com.bookstore.observability.tracing.SpanExporter;
+import com.bookstore.observability.tracing.SpanRecorder;
+import com.bookstore.observability.tracing.TracingAspect;
+import com.bookstore.observability.tracing.TracingJacksonHttpMessageConverter;
+import com.bookstore.observability.tracing.TracingJdbcListener;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "app.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class TracingConfig {
+    
+    @Bean
+    public SpanRecorder spanRecorder(
+            @Value("${app.tracing.buffer-capacity:10000}") int capacity,
+            ObjectProvider<SpanExporter> exporters) {
+        return new SpanRecorder(capacity, exporters.orderedStream().toList());
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "app.tracing.otlp.endpoint")
+    public OtlpSpanExporter otlpSpanExporter(
+            @Value("${app.tracing.otlp.endpoint}") URI endpoint,
+            @Value("${spring.application.name}") String serviceName,
+            @Value("${app.tracing.otlp.max-queue-size:8192}") int maxQueueSize,
+            @Value("${app.tracing.otlp.max-batch-size:512}") int maxBatchSize,
+            @Value("${app.tracing.otlp.flush-interval:PT5S}") Duration flushInterval,
+            @Value("${app.tracing.otlp.timeout:PT10S}") Duration timeout) {
+        return new OtlpSpanExporter(endpoint, serviceName, maxQueueSize, maxBatchSize, flushInterval, timeout);
+    }
+    
+    @Bean
+    public TracingAspect tracingAspect() {
+        return new TracingAspect();
+    }
+    
+    @Bean
+    public TracingJdbcListener tracingJdbcListener() {
+        return new TracingJdbcListener();
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer flushSpanListenerCustomizer() {
+        // Hibernate instantiates the listener itself, once per session
+        return properties -> properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, FlushSpanListener.class.getName());
+    }
+    
+    @Bean
+    public TracingJacksonHttpMessageConverter tracingJacksonHttpMessageConverter(ObjectMapper objectMapper) {
+        // Replaces Boot's default Jackson converter, which backs off when one is defined
+        return new TracingJacksonHttpMessageConverter(objectMapper);
+    }
+    
+    @Bean
+    public TracesEndpoint tracesEndpoint(SpanRecorder spanRecorder) {
+        return new TracesEndpoint(spanRecorder);
+    }
+}
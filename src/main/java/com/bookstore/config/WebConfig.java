@@ -1,19 +1,114 @@
 package com.bookstore.config;
 
+import com.bookstore.observability.tracing.SpanRecorder;
+import com.bookstore.ratelimit.DistributedRateLimiter;
+import com.bookstore.ratelimit.RateLimitProperties;
+import com.bookstore.ratelimit.VerifiedPrincipalLookup;
+import com.bookstore.service.IdempotencyService;
+import com.bookstore.util.BulkheadFilter;
+import com.bookstore.util.IdempotencyFilter;
+import com.bookstore.util.RateLimitingFilter;
 import com.bookstore.util.TraceIdFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
 
 @Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class WebConfig {
     
     @Bean
-    public FilterRegistrationBean<TraceIdFilter> traceIdFilter() {
+    public FilterRegistrationBean<TraceIdFilter> traceIdFilter(
+            ObjectProvider<SpanRecorder> spanRecorder,
+            @Value("${app.tracing.sample-rate:0.01}") double sampleRate) {
         FilterRegistrationBean<TraceIdFilter> registrationBean = new FilterRegistrationBean<>();
-        registrationBean.setFilter(new TraceIdFilter());
+        registrationBean.setFilter(new TraceIdFilter(spanRecorder.getIfAvailable(), sampleRate));
         registrationBean.addUrlPatterns("/*");
-        registrationBean.setOrder(1);
+        // Outermost, so security logs and the http.server.requests observation both see the trace id
+        registrationBean.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registrationBean;
+    }
+    
+    @Bean
+    public FilterRegistrationBean<RateLimitingFilter> rateLimitingFilter(
+            RateLimitProperties rateLimitProperties,
+            ObjectProvider<DistributedRateLimiter> distributedRateLimiter,
+            ObjectProvider<VerifiedPrincipalLookup> verifiedPrincipalLookup,
+            ObjectMapper objectMapper,
+            @Value("${rate-limit.cache.ttl:PT1M}") Duration cacheTtl,
+            @Value("${rate-limit.cache.max-size:10000}") long maxSize) {
+        FilterRegistrationBean<RateLimitingFilter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(new RateLimitingFilter(cacheTtl, maxSize, rateLimitProperties,
+            distributedRateLimiter.getIfAvailable(), verifiedPrincipalLookup.getIfAvailable(), objectMapper));
+        registrationBean.addUrlPatterns("/api/*");
+        // Just ahead of the security filter chain, so rejected requests never reach BCrypt or JWT verification
+        registrationBean.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
         return registrationBean;
     }
-}
\ No newline at end of file
+    
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+            IdempotencyService idempotencyService,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver,
+            @Value("${app.idempotency.in-flight-wait:PT10S}") Duration inFlightWait,
+            @Value("${app.idempotency.max-body-size:1MB}") DataSize maxBodySize) {
+        FilterRegistrationBean<IdempotencyFilter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(new IdempotencyFilter(idempotencyService, handlerExceptionResolver,
+            inFlightWait, maxBodySize));
+        registrationBean.addUrlPatterns("/api/books", "/api/books/*", "/api/inventory/*");
+        // Runs after the security filter chain so the authenticated principal scopes the key
+        registrationBean.setOrder(4);
+        return registrationBean;
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "app.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<BulkheadFilter> bulkheadFilter(
+            MeterRegistry meterRegistry,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${app.bulkhead.pool-share.search:0.3}") double searchShare,
+            @Value("${app.bulkhead.pool-share.detail:0.3}") double detailShare,
+            @Value("${app.bulkhead.pool-share.write:0.3}") double writeShare,
+            @Value("${app.bulkhead.pool-share.bulk:0.1}") double bulkShare,
+            @Value("${app.bulkhead.max-wait:PT0.25S}") Duration maxWait,
+            @Value("${app.bulkhead.retry-after:PT1S}") Duration retryAfter) {
+        // Shares adding up to more than the pool are scaled down: admitting more work than there are
+        // connections would only move the queue into Hikari, where it waits out the connection timeout
+        double totalShare = searchShare + detailShare + writeShare + bulkShare;
+        double scale = totalShare > 1.0 ? 1.0 / totalShare : 1.0;
+        Map<BulkheadFilter.Compartment, Integer> permits = new EnumMap<>(BulkheadFilter.Compartment.class);
+        permits.put(BulkheadFilter.Compartment.SEARCH, permitsFor(poolSize, searchShare * scale));
+        permits.put(BulkheadFilter.Compartment.DETAIL, permitsFor(poolSize, detailShare * scale));
+        permits.put(BulkheadFilter.Compartment.WRITE, permitsFor(poolSize, writeShare * scale));
+        permits.put(BulkheadFilter.Compartment.BULK, permitsFor(poolSize, bulkShare * scale));
+        
+        FilterRegistrationBean<BulkheadFilter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(new BulkheadFilter(
+            permits, maxWait, retryAfter, meterRegistry, handlerExceptionResolver));
+        registrationBean.addUrlPatterns("/api/*");
+        // After authentication so anonymous floods never take permits, before idempotency lookups hit the database
+        registrationBean.setOrder(3);
+        return registrationBean;
+    }
+    
+    private static int permitsFor(int poolSize, double share) {
+        // Rounded down so the compartments never add up to more than the pool, but every class keeps one
+        return Math.max(1, (int) Math.floor(poolSize * share));
+    }
+}
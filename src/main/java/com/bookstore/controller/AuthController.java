@@ -2,7 +2,9 @@ package com.bookstore.controller;
 
 import com.bookstore.dto.LoginRequest;
 import com.bookstore.dto.LoginResponse;
+import com.bookstore.dto.RefreshTokenRequest;
 import com.bookstore.service.AuthService;
+import io.micrometer.core.annotation.Timed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -10,12 +12,17 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
+@Timed(value = "bookstore.controller", description = "Time spent in controller methods")
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 @Tag(name = "Authentication", description = "Authentication endpoints")
@@ -36,4 +43,32 @@ public class AuthController {
     public LoginResponse login(@Valid @RequestBody LoginRequest request) {
         return authService.login(request);
     }
-}
\ No newline at end of file
+    
+    @PostMapping("/refresh")
+    @Operation(
+        summary = "Refresh tokens",
+        description = "Exchange a refresh token for a new access token and refresh token. Each refresh token is single-use"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Tokens refreshed"),
+        @ApiResponse(responseCode = "401", description = "Refresh token unknown, expired, revoked or reused")
+    })
+    public LoginResponse refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return authService.refresh(request);
+    }
+    
+    @PostMapping("/logout")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(
+        summary = "Logout",
+        description = "Revoke the refresh token's session and the bearer access token sent with the request"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "204", description = "Logged out")
+    })
+    public void logout(
+            @RequestBody(required = false) RefreshTokenRequest request,
+            @AuthenticationPrincipal Jwt accessToken) {
+        authService.logout(request, accessToken);
+    }
+}
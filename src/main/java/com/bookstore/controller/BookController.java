@@ -5,6 +5,7 @@ import com.bookstore.dto.BookDto;
 import com.bookstore.dto.PageMeta;
 import com.bookstore.service.BookService;
 import com.bookstore.util.SortValidator;
+import io.micrometer.core.annotation.Timed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -28,6 +29,7 @@ import java.util.List;
 import java.util.UUID;
 
 @RestController
+@Timed(value = "bookstore.controller", description = "Time spent in controller methods")
 @RequestMapping("/api/books")
 @RequiredArgsConstructor
 @Validated
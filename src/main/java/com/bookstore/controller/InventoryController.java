@@ -1,30 +1,56 @@
 package com.bookstore.controller;
 
-import com.bookstore.dto.BookDto;
+import com.bookstore.dto.ApiResponse;
+import com.bookstore.dto.CartReservationRequest;
+import com.bookstore.dto.CartReservationResponse;
 import com.bookstore.dto.InventoryAdjustmentDto;
+import com.bookstore.dto.InventoryItemDto;
+import com.bookstore.dto.PageMeta;
 import com.bookstore.service.InventoryService;
+import com.bookstore.service.StockAlertService;
+import com.bookstore.util.SortValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import io.micrometer.core.annotation.Timed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
-import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.UUID;
 
 @RestController
+@Timed(value = "bookstore.controller", description = "Time spent in controller methods")
 @RequestMapping("/api/inventory")
 @RequiredArgsConstructor
+@Validated
 @Tag(name = "Inventory Management", description = "Endpoints for managing book inventory")
 public class InventoryController {
     
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    
     private final InventoryService inventoryService;
+    private final StockAlertService stockAlertService;
+    private final SortValidator sortValidator;
+    private final ObjectMapper objectMapper;
     
     @PostMapping("/{bookId}/reserve")
     @ResponseStatus(HttpStatus.NO_CONTENT)
@@ -32,9 +58,12 @@ public class InventoryController {
     @Operation(summary = "Reserve inventory for a book", 
                description = "Reserve specified quantity of books for purchase")
     @ApiResponses({
-        @ApiResponse(responseCode = "204", description = "Inventory reserved successfully"),
-        @ApiResponse(responseCode = "404", description = "Book not found"),
-        @ApiResponse(responseCode = "409", description = "Insufficient inventory available")
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "204", description = "Inventory reserved successfully"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "404", description = "Book not found"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "409", description = "Insufficient inventory available")
     })
     public void reserveInventory(
             @Parameter(description = "Book ID") @PathVariable UUID bookId,
@@ -42,6 +71,23 @@ public class InventoryController {
         inventoryService.reserveInventory(bookId, quantity);
     }
     
+    @PostMapping("/reservations")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    @Operation(summary = "Reserve inventory for several books", 
+               description = "Atomically reserve every cart line in one transaction, or none of them")
+    @ApiResponses({
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200", description = "All lines reserved"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "404", description = "Book not found"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "409",
+            description = "One or more lines have insufficient inventory; per-line shortfalls are reported")
+    })
+    public CartReservationResponse reserveCart(@Valid @RequestBody CartReservationRequest request) {
+        return inventoryService.reserveCart(request);
+    }
+    
     @DeleteMapping("/{bookId}/reservation")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
@@ -67,18 +113,66 @@ public class InventoryController {
     @GetMapping("/restock-needed")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get books needing restock", 
-               description = "Retrieve books that are at or below reorder level")
-    public List<BookDto> getBooksNeedingRestock() {
-        return inventoryService.getBooksNeedingRestock();
+               description = "Retrieve a page of books that are at or below reorder level, largest shortfall first by default")
+    public ResponseEntity<ApiResponse<List<InventoryItemDto>>> getBooksNeedingRestock(
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int size,
+            @Parameter(description = "Sort as field,direction; fields: shortfall, viewcount, available, title")
+            @RequestParam(defaultValue = "shortfall,desc") String sort) {
+        
+        Pageable pageable = PageRequest.of(page, size, sortValidator.validateAndParseInventory(sort));
+        Page<InventoryItemDto> result = inventoryService.getBooksNeedingRestock(pageable);
+        
+        PageMeta meta = PageMeta.of(page, size, result.getTotalElements());
+        return ResponseEntity.ok(ApiResponse.of(result.getContent(), meta));
+    }
+    
+    @GetMapping(value = "/restock-needed/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export books needing restock", 
+               description = "Stream every book at or below reorder level as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> exportBooksNeedingRestock() {
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = objectMapper.writer()
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                inventoryService.streamBooksNeedingRestock(item -> {
+                    try {
+                        writer.write(item);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
     }
     
     @GetMapping("/low-stock")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get low stock books", 
-               description = "Retrieve books below specified threshold")
-    public List<BookDto> getLowStockBooks(
-            @Parameter(description = "Stock threshold") @RequestParam(defaultValue = "10") @Min(0) Integer threshold) {
-        return inventoryService.getLowStockBooks(threshold);
+               description = "Retrieve a page of books below specified threshold")
+    public ResponseEntity<ApiResponse<List<InventoryItemDto>>> getLowStockBooks(
+            @Parameter(description = "Stock threshold") @RequestParam(defaultValue = "10") @Min(0) Integer threshold,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int size,
+            @Parameter(description = "Sort as field,direction; fields: shortfall, viewcount, available, title")
+            @RequestParam(defaultValue = "available,asc") String sort) {
+        
+        Pageable pageable = PageRequest.of(page, size, sortValidator.validateAndParseInventory(sort));
+        Page<InventoryItemDto> result = inventoryService.getLowStockBooks(threshold, pageable);
+        
+        PageMeta meta = PageMeta.of(page, size, result.getTotalElements());
+        return ResponseEntity.ok(ApiResponse.of(result.getContent(), meta));
+    }
+    
+    @GetMapping(value = "/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Stream stock alerts", 
+               description = "Server-sent events whenever a book crosses its reorder level or the given threshold")
+    public SseEmitter streamStockAlerts(
+            @Parameter(description = "Optional low-stock threshold") @RequestParam(required = false) @Min(0) Integer threshold) {
+        return stockAlertService.subscribe(threshold);
     }
     
     @PutMapping("/{bookId}/reorder-level")
@@ -0,0 +1,34 @@
+package com.bookstore.controller;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Authentication", description = "Authentication endpoints")
+@Profile("jwt")
+public class JwksController {
+    
+    private final JWKSet jwkSet;
+    
+    @GetMapping("/.well-known/jwks.json")
+    @Operation(
+        summary = "JSON Web Key Set",
+        description = "Public keys accepted for verifying access tokens, including retired keys still in rotation"
+    )
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+            .body(jwkSet.toPublicJWKSet().toJSONObject());
+    }
+}
@@ -7,6 +7,8 @@ import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Check;
+import org.hibernate.annotations.Formula;
 
 import java.math.BigDecimal;
 import java.util.HashSet;
@@ -47,6 +49,7 @@ public class Book extends BaseEntity {
     private Integer quantityInStock = 0;
     
     @PositiveOrZero
+    @Check(name = "chk_books_reserved_quantity_non_negative", constraints = "reserved_quantity >= 0")
     @Column(name = "reserved_quantity", nullable = false)
     @Builder.Default
     private Integer reservedQuantity = 0;
@@ -62,6 +65,17 @@ public class Book extends BaseEntity {
     @Builder.Default
     private Integer reorderLevel = 5;
     
+    // Stored generated column maintained by PostgreSQL so stock queries can be served from indexes
+    @Column(name = "available_quantity", insertable = false, updatable = false,
+            columnDefinition = "integer generated always as (quantity_in_stock - reserved_quantity) stored")
+    @Setter(AccessLevel.NONE)
+    private Integer availableQuantity;
+    
+    // Units needed to get back to the reorder level; used to sort restock reports
+    @Formula("reorder_level - available_quantity")
+    @Setter(AccessLevel.NONE)
+    private Integer restockShortfall;
+    
     @Column(name = "view_count", nullable = false)
     @Builder.Default
     private Long viewCount = 0L;
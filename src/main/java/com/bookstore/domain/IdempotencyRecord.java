@@ -0,0 +1,44 @@
+package com.bookstore.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+import java.time.Instant;
+
+/**
+ * Stored outcome of a write request sent with an Idempotency-Key header, replayed for duplicates until it expires
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@ToString(callSuper = true, exclude = "responseBody")
+public class IdempotencyRecord extends BaseEntity {
+    
+    // SHA-256 of the principal and the client supplied key
+    @Column(name = "key_hash", nullable = false, unique = true, length = 64)
+    private String keyHash;
+    
+    // SHA-256 of method, URI, query string and body of the original request
+    @Column(name = "request_fingerprint", nullable = false, length = 64)
+    private String requestFingerprint;
+    
+    @Column(name = "response_status", nullable = false)
+    private Integer responseStatus;
+    
+    @Column(name = "content_type")
+    private String contentType;
+    
+    @Column(length = 2048)
+    private String location;
+    
+    @Column(name = "response_body")
+    private byte[] responseBody;
+    
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,32 @@
+package com.bookstore.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Shared fixed-window request counter used when rate limiting is distributed across instances.
+ * Rows are only written through the atomic upsert in {@code RateLimitBucketStore}.
+ */
+@Entity
+@Table(name = "rate_limit_buckets")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class RateLimitBucket {
+    
+    @Id
+    @Column(name = "bucket_key", nullable = false)
+    private String bucketKey;
+    
+    // Compared with the database clock, so it must not depend on each instance's time zone
+    @Column(name = "window_start", nullable = false, columnDefinition = "TIMESTAMP WITH TIME ZONE")
+    private Instant windowStart;
+    
+    @Column(nullable = false)
+    private long consumed;
+}
@@ -0,0 +1,40 @@
+package com.bookstore.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Single-use refresh token issued at login. Each refresh replaces it with a new token of the same family,
+ * so presenting a token twice reveals a leak and revokes the whole family.
+ */
+@Entity
+@Table(name = "refresh_tokens")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@ToString(callSuper = true, exclude = "tokenHash")
+public class RefreshToken extends BaseEntity {
+    
+    // SHA-256 of the opaque token handed to the client; the token itself is never stored
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+    
+    // Shared by every token descending from one login
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+    
+    @Column(nullable = false)
+    private String username;
+    
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+    
+    @Column(name = "revoked_at")
+    private Instant revokedAt;
+}
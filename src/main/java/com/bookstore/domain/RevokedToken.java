@@ -0,0 +1,27 @@
+package com.bookstore.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+import java.time.Instant;
+
+/**
+ * Access token revoked before its expiry, identified by its jti claim and kept until it would have expired
+ */
+@Entity
+@Table(name = "revoked_tokens")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@ToString(callSuper = true)
+public class RevokedToken extends BaseEntity {
+    
+    @Column(nullable = false, unique = true, length = 64)
+    private String jti;
+    
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,26 @@
+package com.bookstore.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+public record CartReservationRequest(
+    @NotEmpty(message = "At least one line is required")
+    @Size(max = 100, message = "A cart reservation must not exceed 100 lines")
+    List<@Valid @NotNull Line> lines
+) {
+    
+    // Also bounds the total of repeated lines for one book, so merged quantities cannot overflow
+    public static final int MAX_QUANTITY = 10_000;
+    
+    public record Line(
+        @NotNull UUID bookId,
+        @NotNull @Min(1) @Max(value = MAX_QUANTITY, message = "Quantity must not exceed " + MAX_QUANTITY) Integer quantity
+    ) {}
+}
@@ -0,0 +1,21 @@
+package com.bookstore.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record CartReservationResponse(
+    List<LineStatus> lines
+) {
+    
+    public record LineStatus(
+        UUID bookId,
+        int requestedQuantity,
+        int availableQuantity,
+        int shortfall
+    ) {
+        public static LineStatus of(UUID bookId, int requestedQuantity, int availableQuantity) {
+            int shortfall = Math.max(0, requestedQuantity - Math.max(0, availableQuantity));
+            return new LineStatus(bookId, requestedQuantity, availableQuantity, shortfall);
+        }
+    }
+}
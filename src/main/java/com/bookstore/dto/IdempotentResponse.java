@@ -0,0 +1,16 @@
+package com.bookstore.dto;
+
+/**
+ * Response captured for an idempotent write, together with the fingerprint of the request that produced it
+ */
+public record IdempotentResponse(
+    String requestFingerprint,
+    int status,
+    String contentType,
+    String location,
+    byte[] body
+) {
+    public boolean matches(String fingerprint) {
+        return requestFingerprint.equals(fingerprint);
+    }
+}
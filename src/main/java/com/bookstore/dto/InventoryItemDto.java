@@ -0,0 +1,23 @@
+package com.bookstore.dto;
+
+import java.util.UUID;
+
+/**
+ * Lean stock view of a book for inventory reports; carries no author or genre collections.
+ */
+public record InventoryItemDto(
+    UUID id,
+    String title,
+    String isbn,
+    Integer quantityInStock,
+    Integer reservedQuantity,
+    Integer availableQuantity,
+    Integer reorderLevel,
+    Integer shortfall,
+    Long viewCount
+) {
+    public InventoryItemDto {
+        // A negative raw shortfall means stock is still above the reorder level
+        shortfall = shortfall == null ? 0 : Math.max(0, shortfall);
+    }
+}
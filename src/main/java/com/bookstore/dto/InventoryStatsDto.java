@@ -0,0 +1,38 @@
+package com.bookstore.dto;
+
+import com.bookstore.repository.InventorySnapshot;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record InventoryStatsDto(
+    long totalTitles,
+    long unitsInStock,
+    long reservedUnits,
+    long availableUnits,
+    long restockNeeded,
+    BigDecimal valuationAtCost,
+    BigDecimal valuationAtPrice,
+    Instant computedAt
+) {
+    public static InventoryStatsDto of(InventorySnapshot snapshot, Instant computedAt) {
+        return new InventoryStatsDto(
+            orZero(snapshot.getTotalBooks()),
+            orZero(snapshot.getUnitsInStock()),
+            orZero(snapshot.getReservedUnits()),
+            orZero(snapshot.getAvailableUnits()),
+            orZero(snapshot.getRestockNeeded()),
+            orZero(snapshot.getValuationAtCost()),
+            orZero(snapshot.getValuationAtPrice()),
+            computedAt
+        );
+    }
+    
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
+    }
+    
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -8,6 +8,8 @@ public record LoginResponse(
     String tokenType,
     long expiresIn,
     Instant expiresAt,
+    String refreshToken,
+    Instant refreshExpiresAt,
     List<String> authorities,
     String username
-) {}
\ No newline at end of file
+) {}
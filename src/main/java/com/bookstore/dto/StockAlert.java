@@ -0,0 +1,24 @@
+package com.bookstore.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record StockAlert(
+    Type type,
+    UUID bookId,
+    int previousAvailable,
+    int availableQuantity,
+    int level,
+    Instant occurredAt
+) {
+    public enum Type {
+        // Available quantity fell to or below the book's reorder level
+        RESTOCK_NEEDED,
+        // Available quantity rose back above the book's reorder level
+        RESTOCKED,
+        // Available quantity fell to or below the subscriber's threshold
+        LOW_STOCK,
+        // Available quantity rose back above the subscriber's threshold
+        STOCK_RECOVERED
+    }
+}
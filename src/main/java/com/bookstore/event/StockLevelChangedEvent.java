@@ -0,0 +1,22 @@
+package com.bookstore.event;
+
+import java.util.UUID;
+
+/**
+ * Published by inventory writes with the available quantity before and after the change. The reorder
+ * level is null for books that have none.
+ */
+public record StockLevelChangedEvent(
+    UUID bookId,
+    int previousAvailable,
+    int currentAvailable,
+    Integer reorderLevel
+) {
+    public boolean crossedDownTo(int level) {
+        return previousAvailable > level && currentAvailable <= level;
+    }
+    
+    public boolean crossedUpFrom(int level) {
+        return previousAvailable <= level && currentAvailable > level;
+    }
+}
@@ -0,0 +1,24 @@
+package com.bookstore.exception;
+
+/**
+ * Exception thrown when a request class has no free capacity within the allowed wait
+ */
+public class BulkheadFullException extends RuntimeException {
+    
+    private final String compartment;
+    private final long retryAfterSeconds;
+    
+    public BulkheadFullException(String compartment, long retryAfterSeconds) {
+        super(String.format("Too many concurrent %s requests. Try again in %d seconds", compartment, retryAfterSeconds));
+        this.compartment = compartment;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public String getCompartment() {
+        return compartment;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
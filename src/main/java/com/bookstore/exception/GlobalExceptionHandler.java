@@ -21,7 +21,7 @@ import java.util.List;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
     
-    private static final String PROBLEM_BASE_URL = "https://bookstore-api.example.com/problems";
+    public static final String PROBLEM_BASE_URL = "https://bookstore-api.example.com/problems";
 
     public record ValidationError(String field, String message) {}
     
@@ -107,6 +107,24 @@ public class GlobalExceptionHandler {
             .body(problem);
     }
     
+    @ExceptionHandler(InvalidCartQuantityException.class)
+    public ResponseEntity<ProblemDetail> handleInvalidCartQuantity(
+            InvalidCartQuantityException ex, WebRequest request) {
+
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(
+            HttpStatus.BAD_REQUEST, ex.getMessage());
+        problem.setType(URI.create(PROBLEM_BASE_URL + "/invalid-cart-quantity"));
+        problem.setTitle("Invalid Cart Quantity");
+        problem.setProperty("timestamp", Instant.now());
+        problem.setProperty("bookId", ex.getBookId());
+        problem.setProperty("requestedQuantity", ex.getRequestedQuantity());
+        problem.setProperty("maxQuantity", ex.getMaxQuantity());
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+            .body(problem);
+    }
+    
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ProblemDetail> handleValidationExceptions(
             MethodArgumentNotValidException ex, WebRequest request) {
@@ -185,6 +203,69 @@ public class GlobalExceptionHandler {
             .body(problem);
     }
     
+    @ExceptionHandler(InsufficientCartInventoryException.class)
+    public ResponseEntity<ProblemDetail> handleInsufficientCartInventory(
+            InsufficientCartInventoryException ex, WebRequest request) {
+        
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(
+            HttpStatus.CONFLICT, ex.getMessage());
+        problem.setType(URI.create(PROBLEM_BASE_URL + "/insufficient-inventory"));
+        problem.setTitle("Insufficient Inventory");
+        problem.setProperty("timestamp", Instant.now());
+        problem.setProperty("lines", ex.getLines());
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+            .body(problem);
+    }
+    
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<ProblemDetail> handleIdempotencyKeyMismatch(
+            IdempotencyKeyMismatchException ex, WebRequest request) {
+        
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(
+            HttpStatus.UNPROCESSABLE_ENTITY, ex.getMessage());
+        problem.setType(URI.create(PROBLEM_BASE_URL + "/idempotency-key-reused"));
+        problem.setTitle("Idempotency Key Reused");
+        problem.setProperty("timestamp", Instant.now());
+        
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+            .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+            .body(problem);
+    }
+    
+    @ExceptionHandler(IdempotentRequestInProgressException.class)
+    public ResponseEntity<ProblemDetail> handleIdempotentRequestInProgress(
+            IdempotentRequestInProgressException ex, WebRequest request) {
+        
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(
+            HttpStatus.CONFLICT, ex.getMessage());
+        problem.setType(URI.create(PROBLEM_BASE_URL + "/idempotent-request-in-progress"));
+        problem.setTitle("Request In Progress");
+        problem.setProperty("timestamp", Instant.now());
+        problem.setProperty("retryable", true);
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+            .body(problem);
+    }
+    
+    @ExceptionHandler(IdempotentRequestTooLargeException.class)
+    public ResponseEntity<ProblemDetail> handleIdempotentRequestTooLarge(
+            IdempotentRequestTooLargeException ex, WebRequest request) {
+        
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(
+            HttpStatus.PAYLOAD_TOO_LARGE, ex.getMessage());
+        problem.setType(URI.create(PROBLEM_BASE_URL + "/idempotent-request-too-large"));
+        problem.setTitle("Request Body Too Large");
+        problem.setProperty("timestamp", Instant.now());
+        problem.setProperty("maxBodySize", ex.getMaxBodySize());
+        
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+            .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+            .body(problem);
+    }
+    
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<ProblemDetail> handleDataIntegrityViolation(
             DataIntegrityViolationException ex, WebRequest request) {
@@ -235,23 +316,46 @@ public class GlobalExceptionHandler {
             .body(problem);
     }
     
-    @ExceptionHandler(RateLimitExceededException.class)
-    public ResponseEntity<ProblemDetail> handleRateLimitExceeded(
-            RateLimitExceededException ex, WebRequest request) {
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<ProblemDetail> handleBulkheadFull(
+            BulkheadFullException ex, WebRequest request) {
         
         ProblemDetail problem = ProblemDetail.forStatusAndDetail(
-            HttpStatus.TOO_MANY_REQUESTS, ex.getMessage());
-        problem.setType(URI.create(PROBLEM_BASE_URL + "/rate-limit-exceeded"));
-        problem.setTitle("Rate Limit Exceeded");
+            HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        problem.setType(URI.create(PROBLEM_BASE_URL + "/capacity-exceeded"));
+        problem.setTitle("Service Busy");
         problem.setProperty("timestamp", Instant.now());
-        problem.setProperty("clientIp", ex.getClientIp());
+        problem.setProperty("retryable", true);
         problem.setProperty("retryAfterSeconds", ex.getRetryAfterSeconds());
         
-        HttpHeaders headers = new HttpHeaders();
-        headers.add("X-Rate-Limit-Retry-After", String.valueOf(ex.getRetryAfterSeconds()));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+            .body(problem);
+    }
+    
+    @ExceptionHandler(ReservationTimeoutException.class)
+    public ResponseEntity<ProblemDetail> handleReservationTimeout(
+            ReservationTimeoutException ex, WebRequest request) {
+        
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(
+            HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        problem.setType(URI.create(PROBLEM_BASE_URL + "/reservation-timeout"));
+        problem.setTitle("Reservation Timed Out");
+        problem.setProperty("timestamp", Instant.now());
+        problem.setProperty("bookId", ex.getBookId());
+        problem.setProperty("retryable", ex.isWithdrawn());
+        if (!ex.isWithdrawn()) {
+            // The batch may still commit, so a blind retry could reserve twice
+            problem.setProperty("outcomeUnknown", true);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(problem);
+        }
+        problem.setProperty("retryAfterSeconds", ex.getRetryAfterSeconds());
         
-        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
-            .headers(headers)
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
             .contentType(MediaType.APPLICATION_PROBLEM_JSON)
             .body(problem);
     }
@@ -0,0 +1,11 @@
+package com.bookstore.exception;
+
+/**
+ * Exception thrown when an Idempotency-Key is reused with a different request payload
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    
+    public IdempotencyKeyMismatchException() {
+        super("Idempotency-Key was already used for a different request");
+    }
+}
@@ -0,0 +1,11 @@
+package com.bookstore.exception;
+
+/**
+ * Exception thrown when a duplicate request waited too long for the original request with the same Idempotency-Key
+ */
+public class IdempotentRequestInProgressException extends RuntimeException {
+    
+    public IdempotentRequestInProgressException() {
+        super("A request with the same Idempotency-Key is still being processed");
+    }
+}
@@ -0,0 +1,18 @@
+package com.bookstore.exception;
+
+/**
+ * Exception thrown when a request carrying an Idempotency-Key has a body too large to buffer for fingerprinting
+ */
+public class IdempotentRequestTooLargeException extends RuntimeException {
+    
+    private final long maxBodySize;
+    
+    public IdempotentRequestTooLargeException(long maxBodySize) {
+        super(String.format("Requests with an Idempotency-Key may have a body of at most %d bytes", maxBodySize));
+        this.maxBodySize = maxBodySize;
+    }
+    
+    public long getMaxBodySize() {
+        return maxBodySize;
+    }
+}
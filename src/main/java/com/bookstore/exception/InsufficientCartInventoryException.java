@@ -0,0 +1,20 @@
+package com.bookstore.exception;
+
+import com.bookstore.dto.CartReservationResponse.LineStatus;
+
+import java.util.List;
+
+public class InsufficientCartInventoryException extends RuntimeException {
+    
+    private final List<LineStatus> lines;
+    
+    public InsufficientCartInventoryException(List<LineStatus> lines) {
+        super(String.format("Insufficient inventory for %d of %d cart lines",
+              lines.stream().filter(line -> line.shortfall() > 0).count(), lines.size()));
+        this.lines = List.copyOf(lines);
+    }
+    
+    public List<LineStatus> getLines() {
+        return lines;
+    }
+}
@@ -0,0 +1,33 @@
+package com.bookstore.exception;
+
+import java.util.UUID;
+
+/**
+ * Exception thrown when the lines of a cart reservation add up to more of one book than may be reserved at once
+ */
+public class InvalidCartQuantityException extends RuntimeException {
+
+    private final UUID bookId;
+    private final long requestedQuantity;
+    private final int maxQuantity;
+
+    public InvalidCartQuantityException(UUID bookId, long requestedQuantity, int maxQuantity) {
+        super(String.format("Cart requests %d units of book %s; at most %d may be reserved at once",
+            requestedQuantity, bookId, maxQuantity));
+        this.bookId = bookId;
+        this.requestedQuantity = requestedQuantity;
+        this.maxQuantity = maxQuantity;
+    }
+
+    public UUID getBookId() {
+        return bookId;
+    }
+
+    public long getRequestedQuantity() {
+        return requestedQuantity;
+    }
+
+    public int getMaxQuantity() {
+        return maxQuantity;
+    }
+}
@@ -0,0 +1,45 @@
+package com.bookstore.exception;
+
+import java.util.UUID;
+
+/**
+ * Exception thrown when a reservation did not complete within the allowed wait. If the request was
+ * withdrawn before being applied, retrying it cannot reserve twice. Otherwise it was already part of a
+ * batch whose transaction did not finish in time, and whether it was applied is unknown.
+ */
+public class ReservationTimeoutException extends RuntimeException {
+    
+    private final UUID bookId;
+    private final long retryAfterSeconds;
+    private final boolean withdrawn;
+    
+    public ReservationTimeoutException(UUID bookId, long retryAfterSeconds) {
+        this(bookId, retryAfterSeconds, true);
+    }
+    
+    public ReservationTimeoutException(UUID bookId, long retryAfterSeconds, boolean withdrawn) {
+        super(withdrawn
+            ? String.format("Reservation for book %s was not processed in time. Try again in %d seconds",
+                bookId, retryAfterSeconds)
+            : String.format("Reservation for book %s did not complete in time and may have been applied. "
+                + "Check the book's stock before retrying", bookId));
+        this.bookId = bookId;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.withdrawn = withdrawn;
+    }
+    
+    public UUID getBookId() {
+        return bookId;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+    
+    /**
+     * Whether the request was withdrawn unapplied; {@code false} means its outcome is unknown
+     */
+    public boolean isWithdrawn() {
+        return withdrawn;
+    }
+}
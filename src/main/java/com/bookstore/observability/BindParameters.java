@@ -0,0 +1,68 @@
+package com.bookstore.observability;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Values bound to a prepared statement through its {@code setXxx(index, value, ...)} methods.
+ * Streams and LOBs cannot be replayed or shown, so they are kept as a {@link Unreplayable} marker.
+ */
+final class BindParameters {
+    
+    private static final Set<String> UNREPLAYABLE_SETTERS = Set.of(
+        "setAsciiStream", "setBinaryStream", "setCharacterStream", "setNCharacterStream",
+        "setUnicodeStream", "setBlob", "setClob", "setNClob", "setSQLXML", "setRef", "setArray"
+    );
+    
+    private Object[] values = new Object[8];
+    private int count;
+    
+    void set(String setter, Object[] args) {
+        int index = (Integer) args[0];
+        if (index < 1) {
+            return;
+        }
+        if (index > values.length) {
+            values = Arrays.copyOf(values, Math.max(index, values.length * 2));
+        }
+        values[index - 1] = valueOf(setter, args);
+        count = Math.max(count, index);
+    }
+    
+    void clear() {
+        Arrays.fill(values, 0, count, null);
+        count = 0;
+    }
+    
+    List<Object> snapshot() {
+        if (count == 0) {
+            return List.of();
+        }
+        // Arrays.asList tolerates the nulls bound by setNull
+        return Collections.unmodifiableList(new ArrayList<>(Arrays.asList(values).subList(0, count)));
+    }
+    
+    private static Object valueOf(String setter, Object[] args) {
+        if ("setNull".equals(setter)) {
+            return null;
+        }
+        if (UNREPLAYABLE_SETTERS.contains(setter)) {
+            return new Unreplayable(setter.substring(3));
+        }
+        return args[1];
+    }
+    
+    /**
+     * Placeholder for a bound value that was consumed by the driver and cannot be bound again
+     */
+    record Unreplayable(String type) {
+        
+        @Override
+        public String toString() {
+            return "<" + type + ">";
+        }
+    }
+}
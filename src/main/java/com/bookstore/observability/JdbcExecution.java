@@ -0,0 +1,27 @@
+package com.bookstore.observability;
+
+import java.util.List;
+
+/**
+ * One statement execution seen by {@link ObservedDataSource}.
+ *
+ * @param sql          statement text; for JDBC batches of plain statements the last added statement
+ * @param elapsedNanos time spent inside the driver call
+ * @param rows         rows affected by updates and batches, or -1 when the statement returned a result set
+ * @param batch        whether this was an executeBatch call
+ * @param failure      the exception thrown by the driver, or null on success
+ * @param parameters   values bound to a prepared statement, in index order; empty when parameter
+ *                     capture is off or the statement has none. For batches only the last row is kept
+ */
+public record JdbcExecution(
+    String sql,
+    long elapsedNanos,
+    long rows,
+    boolean batch,
+    Throwable failure,
+    List<Object> parameters
+) {
+    public boolean isSuccess() {
+        return failure == null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.bookstore.observability;
+
+/**
+ * Callback for statements executed through {@link ObservedDataSource}. Implementations run on the
+ * calling thread inside the JDBC call path, so they must be cheap and must not throw.
+ */
+public interface JdbcExecutionListener {
+    
+    void afterExecute(JdbcExecution execution);
+    
+    /**
+     * Called once per result set when it is exhausted or closed, with the number of rows read
+     */
+    default void afterResultSet(String sql, long rowsRead) {
+    }
+}
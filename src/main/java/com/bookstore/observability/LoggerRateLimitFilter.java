@@ -0,0 +1,114 @@
+package com.bookstore.observability;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the number of events per second each logger under a prefix may emit at or below
+ * {@code maxLevel}. It runs before the logging event is created, so a suppressed call costs a map
+ * lookup and a CAS. Warnings and errors always pass.
+ * 
+ * <pre>{@code
+ * <turboFilter class="com.bookstore.observability.LoggerRateLimitFilter">
+ *     <loggerPrefix>com.bookstore.service.impl.InventoryServiceImpl</loggerPrefix>
+ *     <eventsPerSecond>50</eventsPerSecond>
+ * </turboFilter>
+ * }</pre>
+ */
+public class LoggerRateLimitFilter extends TurboFilter {
+    
+    private String loggerPrefix = "";
+    private int eventsPerSecond = 100;
+    private Level maxLevel = Level.INFO;
+    
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicLong suppressed = new AtomicLong();
+    
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, 
+                              String format, Object[] params, Throwable t) {
+        if (!isStarted() || level == null || level.isGreaterOrEqual(Level.WARN) 
+                || level.toInt() > maxLevel.toInt() || !logger.getName().startsWith(loggerPrefix)) {
+            return FilterReply.NEUTRAL;
+        }
+        // Events the logger would discard anyway must not use up the budget
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        Window window = windows.computeIfAbsent(logger.getName(), name -> new Window());
+        if (window.tryAcquire(System.currentTimeMillis() / 1000, eventsPerSecond)) {
+            return FilterReply.NEUTRAL;
+        }
+        suppressed.incrementAndGet();
+        return FilterReply.DENY;
+    }
+    
+    @Override
+    public void start() {
+        if (eventsPerSecond < 1) {
+            addError("eventsPerSecond must be positive for " + getName());
+            return;
+        }
+        super.start();
+    }
+    
+    public long getSuppressedCount() {
+        return suppressed.get();
+    }
+    
+    public String getLoggerPrefix() {
+        return loggerPrefix;
+    }
+    
+    public void setLoggerPrefix(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix;
+    }
+    
+    public int getEventsPerSecond() {
+        return eventsPerSecond;
+    }
+    
+    public void setEventsPerSecond(int eventsPerSecond) {
+        this.eventsPerSecond = eventsPerSecond;
+    }
+    
+    public Level getMaxLevel() {
+        return maxLevel;
+    }
+    
+    public void setMaxLevel(Level maxLevel) {
+        this.maxLevel = maxLevel;
+    }
+    
+    /**
+     * Fixed one-second window packed into a single long: epoch second in the high half, count in the low half
+     */
+    private static final class Window {
+        
+        private final AtomicLong state = new AtomicLong();
+        
+        boolean tryAcquire(long second, int limit) {
+            while (true) {
+                long current = state.get();
+                long next;
+                if (current >>> 32 != second) {
+                    next = (second << 32) | 1;
+                } else if ((int) current >= limit) {
+                    return false;
+                } else {
+                    next = current + 1;
+                }
+                if (state.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
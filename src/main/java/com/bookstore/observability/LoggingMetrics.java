@@ -0,0 +1,53 @@
+package com.bookstore.observability;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+
+/**
+ * Exposes the async appender backlog and the events suppressed by {@link LoggerRateLimitFilter}, so
+ * dropped log lines show up on a dashboard instead of going missing silently.
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        
+        Iterator<Appender<ILoggingEvent>> appenders = 
+            context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (appenders.next() instanceof AsyncAppender async) {
+                Gauge.builder("logging.async.queue.size", async, AsyncAppender::getNumberOfElementsInQueue)
+                    .description("Log events waiting to be written")
+                    .tag("appender", async.getName())
+                    .register(registry);
+                Gauge.builder("logging.async.queue.remaining", async, AsyncAppender::getRemainingCapacity)
+                    .description("Free slots in the async appender queue")
+                    .tag("appender", async.getName())
+                    .register(registry);
+            }
+        }
+        
+        context.getTurboFilterList().stream()
+            .filter(LoggerRateLimitFilter.class::isInstance)
+            .map(LoggerRateLimitFilter.class::cast)
+            .forEach(filter -> FunctionCounter.builder("logging.events.suppressed", filter, 
+                    LoggerRateLimitFilter::getSuppressedCount)
+                .description("Log events dropped by per-logger rate limiting")
+                .tag("logger", filter.getLoggerPrefix())
+                .register(registry));
+    }
+}
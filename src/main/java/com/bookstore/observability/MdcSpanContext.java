@@ -0,0 +1,32 @@
+package com.bookstore.observability;
+
+import com.bookstore.util.TraceIdFilter;
+import io.prometheus.metrics.tracer.common.SpanContext;
+import org.slf4j.MDC;
+
+/**
+ * Exposes the TraceIdFilter trace and span ids to the Prometheus registry so histogram buckets carry
+ * OpenMetrics exemplars pointing at a concrete request
+ */
+public class MdcSpanContext implements SpanContext {
+    
+    @Override
+    public String getCurrentTraceId() {
+        return MDC.get(TraceIdFilter.TRACE_ID_MDC_KEY);
+    }
+    
+    @Override
+    public String getCurrentSpanId() {
+        return MDC.get(TraceIdFilter.SPAN_ID_MDC_KEY);
+    }
+    
+    @Override
+    public boolean isCurrentSpanSampled() {
+        return getCurrentTraceId() != null;
+    }
+    
+    @Override
+    public void markCurrentSpanAsExemplar() {
+        // Nothing to mark: there is no tracer whose sampling decision depends on it
+    }
+}
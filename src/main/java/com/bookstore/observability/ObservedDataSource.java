@@ -0,0 +1,220 @@
+package com.bookstore.observability;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * DataSource wrapper that reports every statement execution to {@link JdbcExecutionListener}s.
+ * Connections, statements and result sets are wrapped in JDK proxies; everything else is passed
+ * straight through to the pooled objects. Bind parameters of prepared statements are recorded only
+ * when parameter capture is enabled.
+ */
+@Slf4j
+public class ObservedDataSource extends DelegatingDataSource {
+    
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+        "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch"
+    );
+    
+    private final Supplier<List<JdbcExecutionListener>> listeners;
+    private final boolean captureParameters;
+    
+    public ObservedDataSource(DataSource targetDataSource, Supplier<List<JdbcExecutionListener>> listeners) {
+        this(targetDataSource, listeners, false);
+    }
+    
+    public ObservedDataSource(DataSource targetDataSource, Supplier<List<JdbcExecutionListener>> listeners,
+                              boolean captureParameters) {
+        super(targetDataSource);
+        this.listeners = listeners;
+        this.captureParameters = captureParameters;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxyConnection(super.getConnection());
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxyConnection(super.getConnection(username, password));
+    }
+    
+    private Connection proxyConnection(Connection connection) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            if (isEquals(method)) {
+                return proxy == args[0];
+            }
+            Object result = invoke(connection, method, args);
+            if (result instanceof Statement statement) {
+                String sql = method.getName().startsWith("prepare") && args != null && args[0] instanceof String s 
+                    ? s : null;
+                return proxyStatement(statement, sql);
+            }
+            return result;
+        });
+    }
+    
+    private Statement proxyStatement(Statement statement, String preparedSql) {
+        Class<? extends Statement> type = statement instanceof CallableStatement ? CallableStatement.class
+            : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        
+        InvocationHandler handler = new InvocationHandler() {
+            private final BindParameters parameters = captureParameters && preparedSql != null 
+                ? new BindParameters() : null;
+            private String lastBatchSql;
+            
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (isEquals(method)) {
+                    return proxy == args[0];
+                }
+                String name = method.getName();
+                if ("addBatch".equals(name) && args != null && args.length == 1 && args[0] instanceof String s) {
+                    lastBatchSql = s;
+                }
+                if (parameters != null) {
+                    if ("clearParameters".equals(name)) {
+                        parameters.clear();
+                    } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        parameters.set(name, args);
+                    }
+                }
+                if (!EXECUTE_METHODS.contains(name)) {
+                    Object result = ObservedDataSource.invoke(statement, method, args);
+                    if ("getResultSet".equals(name) && result instanceof ResultSet resultSet) {
+                        return proxyResultSet(resultSet, preparedSql);
+                    }
+                    return result;
+                }
+                
+                boolean batch = name.startsWith("executeBatch") || name.startsWith("executeLargeBatch");
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s
+                    : preparedSql != null ? preparedSql : lastBatchSql;
+                List<Object> bound = parameters != null ? parameters.snapshot() : List.of();
+                long start = System.nanoTime();
+                Object result;
+                try {
+                    result = ObservedDataSource.invoke(statement, method, args);
+                } catch (Throwable failure) {
+                    notifyExecution(new JdbcExecution(sql, System.nanoTime() - start, 0, batch, failure, bound));
+                    throw failure;
+                }
+                notifyExecution(new JdbcExecution(
+                    sql, System.nanoTime() - start, rowsAffected(result), batch, null, bound));
+                
+                if (result instanceof ResultSet resultSet) {
+                    return proxyResultSet(resultSet, sql);
+                }
+                return result;
+            }
+        };
+        return proxy(type, handler);
+    }
+    
+    private ResultSet proxyResultSet(ResultSet resultSet, String sql) {
+        return proxy(ResultSet.class, new InvocationHandler() {
+            private long rows;
+            private boolean reported;
+            
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (isEquals(method)) {
+                    return proxy == args[0];
+                }
+                Object result = ObservedDataSource.invoke(resultSet, method, args);
+                String name = method.getName();
+                if ("next".equals(name)) {
+                    if (Boolean.TRUE.equals(result)) {
+                        rows++;
+                    } else {
+                        report();
+                    }
+                } else if ("close".equals(name)) {
+                    report();
+                }
+                return result;
+            }
+            
+            private void report() {
+                if (!reported) {
+                    reported = true;
+                    for (JdbcExecutionListener listener : listeners.get()) {
+                        try {
+                            listener.afterResultSet(sql, rows);
+                        } catch (RuntimeException e) {
+                            log.warn("JDBC execution listener {} failed", listener.getClass().getSimpleName(), e);
+                        }
+                    }
+                }
+            }
+        });
+    }
+    
+    private void notifyExecution(JdbcExecution execution) {
+        for (JdbcExecutionListener listener : listeners.get()) {
+            try {
+                listener.afterExecute(execution);
+            } catch (RuntimeException e) {
+                log.warn("JDBC execution listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+    
+    private static long rowsAffected(Object result) {
+        if (result instanceof Integer count) {
+            return count;
+        }
+        if (result instanceof Long count) {
+            return count;
+        }
+        if (result instanceof int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                total += Math.max(0, count);
+            }
+            return total;
+        }
+        if (result instanceof long[] counts) {
+            long total = 0;
+            for (long count : counts) {
+                total += Math.max(0, count);
+            }
+            return total;
+        }
+        return -1;
+    }
+    
+    // Proxies must be equal to themselves, not to the object they wrap
+    private static boolean isEquals(Method method) {
+        return "equals".equals(method.getName()) && method.getParameterCount() == 1;
+    }
+    
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(ObservedDataSource.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+}
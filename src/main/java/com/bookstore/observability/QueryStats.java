@@ -0,0 +1,70 @@
+package com.bookstore.observability;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * SQL activity of one HTTP request. Bound to the request thread by {@link QueryStatsFilter}; statements
+ * run on other threads (e.g. the reservation pipeline) are not attributed to the request.
+ */
+public final class QueryStats {
+    
+    public static final String REQUEST_ATTRIBUTE = QueryStats.class.getName();
+    
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+    
+    private int statements;
+    private long rows;
+    private long nanos;
+    private final Map<String, Integer> executionsBySql = new HashMap<>();
+    
+    static QueryStats start() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+    
+    static void clear() {
+        CURRENT.remove();
+    }
+    
+    static QueryStats current() {
+        return CURRENT.get();
+    }
+    
+    void recordStatement(String sql, long elapsedNanos, long affectedRows) {
+        statements++;
+        nanos += elapsedNanos;
+        if (affectedRows > 0) {
+            rows += affectedRows;
+        }
+        if (sql != null) {
+            executionsBySql.merge(sql, 1, Integer::sum);
+        }
+    }
+    
+    void recordRowsRead(long rowsRead) {
+        rows += rowsRead;
+    }
+    
+    public int getStatements() {
+        return statements;
+    }
+    
+    public long getRows() {
+        return rows;
+    }
+    
+    public Duration getDatabaseTime() {
+        return Duration.ofNanos(nanos);
+    }
+    
+    /**
+     * The statement text executed most often in this request, the usual signature of an N+1 pattern
+     */
+    public Optional<Map.Entry<String, Integer>> mostRepeatedStatement() {
+        return executionsBySql.entrySet().stream().max(Map.Entry.comparingByValue());
+    }
+}
@@ -0,0 +1,144 @@
+package com.bookstore.observability;
+
+import com.bookstore.util.TraceIdFilter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts SQL statements, rows and database time per request and records them per endpoint. Requests
+ * over the statement budget, or repeating one statement many times, are logged with their trace id,
+ * and slow requests are kept with their database breakdown by the {@link SlowRequestRecorder}.
+ */
+@Slf4j
+public class QueryStatsFilter extends OncePerRequestFilter {
+    
+    public static final String DB_QUERIES_HEADER = "X-DB-Queries";
+    
+    private static final int MAX_LOGGED_SQL_LENGTH = 300;
+    
+    private final MeterRegistry meterRegistry;
+    private final SlowRequestRecorder slowRequestRecorder;
+    private final boolean headerEnabled;
+    private final int statementBudget;
+    private final int repeatedStatementThreshold;
+    private final Map<String, EndpointMeters> meters = new ConcurrentHashMap<>();
+    
+    public QueryStatsFilter(MeterRegistry meterRegistry, SlowRequestRecorder slowRequestRecorder, 
+                            boolean headerEnabled, int statementBudget, int repeatedStatementThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.slowRequestRecorder = slowRequestRecorder;
+        this.headerEnabled = headerEnabled;
+        this.statementBudget = statementBudget;
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, 
+                                   HttpServletResponse response, 
+                                   FilterChain filterChain) throws ServletException, IOException {
+        
+        long startNanos = System.nanoTime();
+        QueryStats stats = QueryStats.start();
+        request.setAttribute(QueryStats.REQUEST_ATTRIBUTE, stats);
+        HttpServletResponse target = headerEnabled ? new QueryCountHeaderResponse(response, stats) : response;
+        
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            QueryStats.clear();
+            if (headerEnabled && !response.isCommitted()) {
+                response.setHeader(DB_QUERIES_HEADER, String.valueOf(stats.getStatements()));
+            }
+            record(request, response, stats, Duration.ofNanos(System.nanoTime() - startNanos));
+        }
+    }
+    
+    private void record(HttpServletRequest request, HttpServletResponse response, 
+                        QueryStats stats, Duration elapsed) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        
+        EndpointMeters endpointMeters = meters.computeIfAbsent(request.getMethod() + " " + uri,
+            key -> new EndpointMeters(meterRegistry, request.getMethod(), uri));
+        endpointMeters.statements().record(stats.getStatements());
+        endpointMeters.rows().record(stats.getRows());
+        endpointMeters.time().record(stats.getDatabaseTime());
+        
+        String traceId = MDC.get(TraceIdFilter.TRACE_ID_MDC_KEY);
+        if (stats.getStatements() > statementBudget) {
+            log.warn("Request {} {} executed {} SQL statements, over the budget of {} (traceId {})",
+                request.getMethod(), uri, stats.getStatements(), statementBudget, traceId);
+        }
+        stats.mostRepeatedStatement()
+            .filter(entry -> entry.getValue() >= repeatedStatementThreshold)
+            .ifPresent(entry -> log.warn("Possible N+1 in {} {}: statement executed {} times (traceId {}): {}",
+                request.getMethod(), uri, entry.getValue(), traceId, abbreviate(entry.getKey())));
+        
+        if (slowRequestRecorder.isSlow(elapsed)) {
+            slowRequestRecorder.record(new SlowRequestRecorder.SlowRequest(
+                traceId, request.getMethod(), uri, response.getStatus(), elapsed.toMillis(),
+                stats.getStatements(), stats.getRows(), stats.getDatabaseTime().toMillis(), Instant.now()));
+        }
+    }
+    
+    private static String abbreviate(String sql) {
+        return sql.length() <= MAX_LOGGED_SQL_LENGTH ? sql : sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+    }
+    
+    private record EndpointMeters(DistributionSummary statements, DistributionSummary rows, Timer time) {
+        
+        EndpointMeters(MeterRegistry registry, String method, String uri) {
+            this(
+                DistributionSummary.builder("http.server.requests.db.statements")
+                    .description("SQL statements executed per request")
+                    .tags("method", method, "uri", uri)
+                    .serviceLevelObjectives(1, 2, 5, 10, 20, 50, 100)
+                    .register(registry),
+                DistributionSummary.builder("http.server.requests.db.rows")
+                    .description("Rows read or written per request")
+                    .tags("method", method, "uri", uri)
+                    .serviceLevelObjectives(1, 10, 100, 1_000, 10_000)
+                    .register(registry),
+                Timer.builder("http.server.requests.db.time")
+                    .description("Time spent in JDBC calls per request")
+                    .tags("method", method, "uri", uri)
+                    .publishPercentileHistogram()
+                    .register(registry)
+            );
+        }
+    }
+    
+    /**
+     * Adds the statement count header just before the response is committed, while headers can still be set
+     */
+    private static final class QueryCountHeaderResponse extends OnCommittedResponseWrapper {
+        
+        private final QueryStats stats;
+        
+        QueryCountHeaderResponse(HttpServletResponse response, QueryStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+        
+        @Override
+        protected void onResponseCommitted() {
+            setHeader(DB_QUERIES_HEADER, String.valueOf(stats.getStatements()));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.bookstore.observability;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Attributes JDBC activity to the current request's {@link QueryStats}
+ */
+@Component
+public class QueryStatsListener implements JdbcExecutionListener {
+    
+    @Override
+    public void afterExecute(JdbcExecution execution) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.recordStatement(execution.sql(), execution.elapsedNanos(), execution.rows());
+        }
+    }
+    
+    @Override
+    public void afterResultSet(String sql, long rowsRead) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.recordRowsRead(rowsRead);
+        }
+    }
+}
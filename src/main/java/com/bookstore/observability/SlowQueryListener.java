@@ -0,0 +1,174 @@
+package com.bookstore.observability;
+
+import com.bookstore.observability.SlowQueryStore.SlowQuery;
+import com.bookstore.util.TraceIdFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Records statements slower than the threshold in the {@link SlowQueryStore} with their bind
+ * parameters, endpoint and trace id. A sampled share of slow read-only queries is re-run once under
+ * {@code EXPLAIN (ANALYZE, BUFFERS)} on a separate read-only connection, on a single background
+ * thread, so plans can be compared without database access for developers.
+ */
+@Slf4j
+public class SlowQueryListener implements JdbcExecutionListener, AutoCloseable {
+    
+    private static final int MAX_LOGGED_SQL_LENGTH = 300;
+    private static final Pattern READ_QUERY = Pattern.compile("^\\s*(select|with)\\b", Pattern.CASE_INSENSITIVE);
+    // EXPLAIN ANALYZE executes the statement, so anything that could lock or write is never explained
+    private static final Pattern UNSAFE_TO_EXPLAIN = Pattern.compile(
+        "\\b(for\\s+(update|share|no\\s+key\\s+update|key\\s+share)|insert|update|delete|merge|nextval|setval)\\b|;",
+        Pattern.CASE_INSENSITIVE);
+    
+    private final SlowQueryStore store;
+    private final Supplier<DataSource> explainDataSource;
+    private final long thresholdNanos;
+    private final double explainSampleRate;
+    private final Duration explainTimeout;
+    private final int maxParameterLength;
+    private final Cache<String, Boolean> recentlyExplained;
+    private final ThreadPoolExecutor explainExecutor;
+    
+    public SlowQueryListener(SlowQueryStore store, Supplier<DataSource> explainDataSource, Duration threshold,
+                             double explainSampleRate, Duration explainTimeout, Duration explainCooldown,
+                             int maxParameterLength) {
+        this.store = store;
+        this.explainDataSource = explainDataSource;
+        this.thresholdNanos = threshold.toNanos();
+        this.explainSampleRate = explainSampleRate;
+        this.explainTimeout = explainTimeout;
+        this.maxParameterLength = maxParameterLength;
+        this.recentlyExplained = Caffeine.newBuilder()
+            .expireAfterWrite(explainCooldown)
+            .maximumSize(1_000)
+            .build();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("slow-query-explain-");
+        threadFactory.setDaemon(true);
+        // One plan at a time; excess work is dropped rather than queued behind a struggling database
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(16), threadFactory, new ThreadPoolExecutor.DiscardPolicy());
+    }
+    
+    @Override
+    public void afterExecute(JdbcExecution execution) {
+        if (execution.elapsedNanos() < thresholdNanos || execution.sql() == null || !execution.isSuccess()) {
+            return;
+        }
+        String traceId = MDC.get(TraceIdFilter.TRACE_ID_MDC_KEY);
+        String endpoint = currentEndpoint();
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(execution.elapsedNanos());
+        
+        SlowQuery stored = store.add(new SlowQuery(0, execution.sql(), display(execution.parameters()), durationMs,
+            execution.rows(), endpoint, traceId, Instant.now(), null));
+        // Parameters are left out of the log line; they may carry customer data and stay behind the actuator
+        log.warn("Slow SQL statement took {} ms in {} (traceId {}): {}",
+            durationMs, endpoint, traceId, abbreviate(execution.sql()));
+        
+        if (shouldExplain(execution)) {
+            explainExecutor.execute(() -> explain(stored.id(), execution.sql(), execution.parameters()));
+        }
+    }
+    
+    private boolean shouldExplain(JdbcExecution execution) {
+        if (explainSampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= explainSampleRate) {
+            return false;
+        }
+        String sql = execution.sql();
+        if (!READ_QUERY.matcher(sql).find() || UNSAFE_TO_EXPLAIN.matcher(sql).find()) {
+            return false;
+        }
+        if (execution.parameters().stream().anyMatch(BindParameters.Unreplayable.class::isInstance)) {
+            return false;
+        }
+        // One plan per statement shape per cooldown is enough to spot a regression
+        return recentlyExplained.asMap().putIfAbsent(sql, Boolean.TRUE) == null;
+    }
+    
+    private void explain(long id, String sql, List<Object> parameters) {
+        try (Connection connection = explainDataSource.get().getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET LOCAL statement_timeout = " + explainTimeout.toMillis());
+                }
+                try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+                    for (int i = 0; i < parameters.size(); i++) {
+                        statement.setObject(i + 1, parameters.get(i));
+                    }
+                    StringBuilder plan = new StringBuilder();
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            plan.append(resultSet.getString(1)).append('\n');
+                        }
+                    }
+                    store.attachPlan(id, plan.toString());
+                }
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException | RuntimeException ex) {
+            log.debug("Could not capture plan for slow statement {}", id, ex);
+            store.attachPlan(id, "EXPLAIN failed: " + ex.getMessage());
+        }
+    }
+    
+    private List<String> display(List<Object> parameters) {
+        return parameters.stream().map(this::display).toList();
+    }
+    
+    private String display(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof byte[] bytes) {
+            return "<" + bytes.length + " bytes>";
+        }
+        String text = value.toString();
+        return text.length() <= maxParameterLength ? text : text.substring(0, maxParameterLength) + "...";
+    }
+    
+    private static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+    
+    private static String abbreviate(String sql) {
+        return sql.length() <= MAX_LOGGED_SQL_LENGTH ? sql : sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+    }
+    
+    @Override
+    public void close() {
+        explainExecutor.shutdownNow();
+    }
+}
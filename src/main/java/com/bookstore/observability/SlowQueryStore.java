@@ -0,0 +1,94 @@
+package com.bookstore.observability;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size ring of the most recent slow statements. A plan captured asynchronously is attached to
+ * its entry afterwards, unless the entry has been overwritten in the meantime.
+ */
+public class SlowQueryStore {
+    
+    private final AtomicReferenceArray<SlowQuery> ring;
+    private final AtomicLong sequence = new AtomicLong();
+    
+    public SlowQueryStore(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.ring = new AtomicReferenceArray<>(capacity);
+    }
+    
+    /**
+     * Stores the query under a new id and returns the stored entry
+     */
+    public SlowQuery add(SlowQuery query) {
+        long id = sequence.incrementAndGet();
+        SlowQuery stored = query.withId(id);
+        ring.set(slot(id), stored);
+        return stored;
+    }
+    
+    public void attachPlan(long id, String plan) {
+        int slot = slot(id);
+        SlowQuery current = ring.get(slot);
+        if (current != null && current.id() == id) {
+            ring.compareAndSet(slot, current, current.withPlan(plan));
+        }
+    }
+    
+    /**
+     * Returns the retained statements, slowest first
+     */
+    public List<SlowQuery> snapshot() {
+        List<SlowQuery> queries = new ArrayList<>(ring.length());
+        for (int i = 0; i < ring.length(); i++) {
+            SlowQuery query = ring.get(i);
+            if (query != null) {
+                queries.add(query);
+            }
+        }
+        queries.sort(Comparator.comparingLong(SlowQuery::durationMs).reversed());
+        return queries;
+    }
+    
+    public void clear() {
+        for (int i = 0; i < ring.length(); i++) {
+            ring.set(i, null);
+        }
+    }
+    
+    private int slot(long id) {
+        return (int) (id % ring.length());
+    }
+    
+    /**
+     * @param parameters bind parameters rendered for display, in index order
+     * @param endpoint   handler pattern of the request that ran the statement, or null outside a request
+     * @param plan       EXPLAIN (ANALYZE, BUFFERS) output when this statement was sampled, otherwise null
+     */
+    public record SlowQuery(
+        long id,
+        String sql,
+        List<String> parameters,
+        long durationMs,
+        long rows,
+        String endpoint,
+        String traceId,
+        Instant executedAt,
+        String plan
+    ) {
+        
+        SlowQuery withId(long id) {
+            return new SlowQuery(id, sql, parameters, durationMs, rows, endpoint, traceId, executedAt, plan);
+        }
+        
+        SlowQuery withPlan(String plan) {
+            return new SlowQuery(id, sql, parameters, durationMs, rows, endpoint, traceId, executedAt, plan);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.bookstore.observability;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the most recent requests slower than a threshold in a fixed-size ring, together with the
+ * database share of their time. Recording is lock-free and never allocates beyond the entry itself.
+ */
+public class SlowRequestRecorder {
+    
+    private final Duration threshold;
+    private final AtomicReferenceArray<SlowRequest> ring;
+    private final AtomicLong sequence = new AtomicLong();
+    
+    public SlowRequestRecorder(Duration threshold, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.threshold = threshold;
+        this.ring = new AtomicReferenceArray<>(capacity);
+    }
+    
+    public boolean isSlow(Duration elapsed) {
+        return elapsed.compareTo(threshold) >= 0;
+    }
+    
+    public void record(SlowRequest request) {
+        int slot = (int) (sequence.getAndIncrement() % ring.length());
+        ring.set(slot, request);
+    }
+    
+    /**
+     * Returns the retained requests, slowest first
+     */
+    public List<SlowRequest> snapshot() {
+        List<SlowRequest> requests = new ArrayList<>(ring.length());
+        for (int i = 0; i < ring.length(); i++) {
+            SlowRequest request = ring.get(i);
+            if (request != null) {
+                requests.add(request);
+            }
+        }
+        requests.sort(Comparator.comparingLong(SlowRequest::durationMs).reversed());
+        return requests;
+    }
+    
+    public void clear() {
+        for (int i = 0; i < ring.length(); i++) {
+            ring.set(i, null);
+        }
+    }
+    
+    public Duration getThreshold() {
+        return threshold;
+    }
+    
+    public record SlowRequest(
+        String traceId,
+        String method,
+        String uri,
+        int status,
+        long durationMs,
+        int dbStatements,
+        long dbRows,
+        long dbTimeMs,
+        Instant completedAt
+    ) {
+    }
+}
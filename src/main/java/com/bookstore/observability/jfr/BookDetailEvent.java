@@ -0,0 +1,39 @@
+package com.bookstore.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.UUID;
+
+@Name("com.bookstore.BookDetail")
+@Label("Book Detail")
+@Description("Single book fetch with its authors and genres, including the view count update")
+@Category({"Bookstore", "Catalog"})
+@StackTrace(false)
+public class BookDetailEvent extends Event {
+    
+    @Label("Book Id")
+    String bookId;
+    
+    @Label("Found")
+    boolean found;
+    
+    public static BookDetailEvent start() {
+        BookDetailEvent event = new BookDetailEvent();
+        event.begin();
+        return event;
+    }
+    
+    public void finish(UUID bookId, boolean found) {
+        end();
+        if (shouldCommit()) {
+            this.bookId = String.valueOf(bookId);
+            this.found = found;
+            commit();
+        }
+    }
+}
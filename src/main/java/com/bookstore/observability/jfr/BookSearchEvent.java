@@ -0,0 +1,58 @@
+package com.bookstore.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.bookstore.BookSearch")
+@Label("Book Search")
+@Description("Filtered catalogue search, from query to mapped page")
+@Category({"Bookstore", "Catalog"})
+@StackTrace(false)
+public class BookSearchEvent extends Event {
+    
+    @Label("Title Filter")
+    String title;
+    
+    @Label("Author Filter")
+    String author;
+    
+    @Label("Genre Filter")
+    String genre;
+    
+    @Label("Page Number")
+    int page;
+    
+    @Label("Page Size")
+    int pageSize;
+    
+    @Label("Rows Returned")
+    int rows;
+    
+    @Label("Total Matches")
+    long totalMatches;
+    
+    public static BookSearchEvent start() {
+        BookSearchEvent event = new BookSearchEvent();
+        event.begin();
+        return event;
+    }
+    
+    public void finish(String title, String author, String genre, 
+                       int page, int pageSize, int rows, long totalMatches) {
+        end();
+        if (shouldCommit()) {
+            this.title = title;
+            this.author = author;
+            this.genre = genre;
+            this.page = page;
+            this.pageSize = pageSize;
+            this.rows = rows;
+            this.totalMatches = totalMatches;
+            commit();
+        }
+    }
+}
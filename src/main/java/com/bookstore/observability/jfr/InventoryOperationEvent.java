@@ -0,0 +1,52 @@
+package com.bookstore.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.UUID;
+
+/**
+ * One attempt at a stock change. The event covers the method body; a version conflict detected at
+ * commit is reported by the {@link OptimisticConflictEvent} that precedes the next attempt's event.
+ */
+@Name("com.bookstore.InventoryOperation")
+@Label("Inventory Operation")
+@Description("Reservation, release or stock adjustment of a single book")
+@Category({"Bookstore", "Inventory"})
+@StackTrace(false)
+public class InventoryOperationEvent extends Event {
+    
+    @Label("Operation")
+    String operation;
+    
+    @Label("Book Id")
+    String bookId;
+    
+    @Label("Available Delta")
+    @Description("Change in sellable units; negative when stock is taken")
+    int delta;
+    
+    @Label("Succeeded")
+    boolean succeeded;
+    
+    public static InventoryOperationEvent start() {
+        InventoryOperationEvent event = new InventoryOperationEvent();
+        event.begin();
+        return event;
+    }
+    
+    public void finish(String operation, UUID bookId, int delta, boolean succeeded) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.bookId = String.valueOf(bookId);
+            this.delta = delta;
+            this.succeeded = succeeded;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.bookstore.observability.jfr;
+
+import jakarta.annotation.PostConstruct;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Starts, stops and dumps Flight Recorder recordings for the jfr actuator endpoint. Optionally keeps a
+ * continuous, size and age bounded recording running from startup, so the minutes before a latency
+ * spike can be dumped after the fact.
+ */
+@Component
+@Slf4j
+public class JfrRecordingManager {
+    
+    public static final String CONTINUOUS_RECORDING_NAME = "bookstore-continuous";
+    
+    private static final Pattern PROFILE_NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    
+    private final boolean continuousEnabled;
+    private final String continuousProfile;
+    private final Duration maxAge;
+    private final DataSize maxSize;
+    private final Path dumpDirectory;
+    private final Map<Long, String> profiles = new ConcurrentHashMap<>();
+    
+    public JfrRecordingManager(
+        @Value("${app.observability.jfr.continuous.enabled:false}") boolean continuousEnabled,
+        @Value("${app.observability.jfr.continuous.profile:default}") String continuousProfile,
+        @Value("${app.observability.jfr.max-age:PT1H}") Duration maxAge,
+        @Value("${app.observability.jfr.max-size:256MB}") DataSize maxSize,
+        @Value("${app.observability.jfr.dump-directory:${java.io.tmpdir}/bookstore-jfr}") Path dumpDirectory
+    ) {
+        this.continuousEnabled = continuousEnabled;
+        this.continuousProfile = continuousProfile;
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+        this.dumpDirectory = dumpDirectory;
+    }
+    
+    @PostConstruct
+    void startContinuousRecording() {
+        if (!continuousEnabled) {
+            return;
+        }
+        if (!FlightRecorder.isAvailable()) {
+            log.warn("Flight Recorder is not available in this JVM; continuous recording not started");
+            return;
+        }
+        RecordingInfo info = start(continuousProfile, null, CONTINUOUS_RECORDING_NAME);
+        log.info("Started continuous JFR recording {} with profile {}", info.id(), continuousProfile);
+    }
+    
+    public boolean isAvailable() {
+        return FlightRecorder.isAvailable();
+    }
+    
+    public List<RecordingInfo> recordings() {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+            .sorted(Comparator.comparingLong(Recording::getId))
+            .map(this::toInfo)
+            .toList();
+    }
+    
+    /**
+     * Starts a recording with a built-in or custom settings profile ("default" or "profile" ship with
+     * the JDK). Without a duration it runs until stopped, bounded by the configured max age and size.
+     */
+    public RecordingInfo start(String profile, Duration duration, String name) {
+        // Configuration.getConfiguration also accepts file paths; only named profiles are allowed here
+        if (profile == null || !PROFILE_NAME.matcher(profile).matches()) {
+            throw new IllegalArgumentException("Invalid JFR settings profile name: " + profile);
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(profile);
+        } catch (NoSuchFileException ex) {
+            throw new IllegalArgumentException("Unknown JFR settings profile: " + profile);
+        } catch (IOException | ParseException ex) {
+            throw new IllegalStateException("Could not load JFR settings profile " + profile, ex);
+        }
+        
+        Recording recording = new Recording(configuration);
+        recording.setName(name != null ? name : "bookstore-" + profile + "-" + Instant.now().getEpochSecond());
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSize.toBytes());
+        if (duration != null) {
+            recording.setDuration(duration);
+        }
+        recording.start();
+        profiles.put(recording.getId(), profile);
+        return toInfo(recording);
+    }
+    
+    public Optional<RecordingInfo> stop(long id) {
+        return find(id).map(recording -> {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            return toInfo(recording);
+        });
+    }
+    
+    /**
+     * Writes the data recorded so far to a file, overwriting the previous dump of the same recording
+     */
+    public Optional<Path> dump(long id) throws IOException {
+        Optional<Recording> found = find(id);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        Recording recording = found.get();
+        if (recording.getState() == RecordingState.NEW || recording.getState() == RecordingState.CLOSED) {
+            throw new IllegalStateException("Recording " + id + " has no data to dump (" + recording.getState() + ")");
+        }
+        Files.createDirectories(dumpDirectory);
+        Path target = dumpFile(id);
+        recording.dump(target);
+        return Optional.of(target);
+    }
+    
+    public boolean close(long id) throws IOException {
+        Optional<Recording> found = find(id);
+        found.ifPresent(Recording::close);
+        profiles.remove(id);
+        Files.deleteIfExists(dumpFile(id));
+        return found.isPresent();
+    }
+    
+    private Optional<Recording> find(long id) {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+            .filter(recording -> recording.getId() == id)
+            .findFirst();
+    }
+    
+    private Path dumpFile(long id) {
+        return dumpDirectory.resolve("recording-" + id + ".jfr");
+    }
+    
+    private RecordingInfo toInfo(Recording recording) {
+        return new RecordingInfo(
+            recording.getId(),
+            recording.getName(),
+            recording.getState().name(),
+            profiles.get(recording.getId()),
+            recording.getStartTime(),
+            recording.getDuration(),
+            recording.getSize()
+        );
+    }
+    
+    public record RecordingInfo(
+        long id,
+        String name,
+        String state,
+        String profile,
+        Instant startTime,
+        Duration duration,
+        long sizeBytes
+    ) {
+    }
+}
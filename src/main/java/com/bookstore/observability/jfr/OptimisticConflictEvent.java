@@ -0,0 +1,42 @@
+package com.bookstore.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.bookstore.OptimisticConflict")
+@Label("Optimistic Lock Conflict")
+@Description("Version conflict on a retried write, with the backoff chosen before the next attempt")
+@Category({"Bookstore", "Inventory"})
+@StackTrace(false)
+public class OptimisticConflictEvent extends Event {
+    
+    @Label("Operation")
+    String operation;
+    
+    @Label("Attempt")
+    int attempt;
+    
+    @Label("Retried")
+    @Description("False when the attempt budget was exhausted and the conflict was rethrown")
+    boolean retried;
+    
+    @Label("Backoff")
+    @Timespan(Timespan.MILLISECONDS)
+    long backoff;
+    
+    public static void emit(String operation, int attempt, boolean retried, long backoffMillis) {
+        OptimisticConflictEvent event = new OptimisticConflictEvent();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.attempt = attempt;
+            event.retried = retried;
+            event.backoff = backoffMillis;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.bookstore.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.bookstore.RateLimitRejected")
+@Label("Rate Limit Rejected")
+@Description("Request refused because the client's token bucket was empty")
+@Category({"Bookstore", "Web"})
+@StackTrace(false)
+public class RateLimitRejectedEvent extends Event {
+    
+    @Label("Client")
+    String client;
+    
+    @Label("Path")
+    String path;
+    
+    @Label("Retry After")
+    @Timespan(Timespan.SECONDS)
+    long retryAfter;
+    
+    public static void emit(String client, String path, long retryAfterSeconds) {
+        RateLimitRejectedEvent event = new RateLimitRejectedEvent();
+        if (event.shouldCommit()) {
+            event.client = client;
+            event.path = path;
+            event.retryAfter = retryAfterSeconds;
+            event.commit();
+        }
+    }
+}
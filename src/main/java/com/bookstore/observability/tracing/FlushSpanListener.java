@@ -0,0 +1,27 @@
+package com.bookstore.observability.tracing;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Hibernate session listener that records each flush as a span. Hibernate creates one instance per
+ * session through {@code hibernate.session.events.auto}.
+ */
+public class FlushSpanListener implements SessionEventListener {
+    
+    private transient OpenSpan flush = OpenSpan.NOOP;
+    
+    @Override
+    public void flushStart() {
+        flush = RequestTrace.span("hibernate.flush", SpanKind.INTERNAL);
+    }
+    
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        OpenSpan span = flush;
+        flush = OpenSpan.NOOP;
+        if (span != null) {
+            span.tag("entities", numberOfEntities).tag("collections", numberOfCollections);
+            span.close();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.bookstore.observability.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A span that has started and not yet ended. {@link #NOOP} stands in when nothing is being traced,
+ * so instrumented code never needs a null check.
+ */
+public class OpenSpan implements AutoCloseable {
+    
+    public static final OpenSpan NOOP = new OpenSpan(null, null, null, null, SpanKind.INTERNAL, 0);
+    
+    private final RequestTrace trace;
+    private final String spanId;
+    private final String parentSpanId;
+    private final SpanKind kind;
+    private final long startNanoTime;
+    private String name;
+    private Map<String, String> attributes;
+    private String error;
+    private boolean closed;
+    
+    OpenSpan(RequestTrace trace, String spanId, String parentSpanId, String name, SpanKind kind, long startNanoTime) {
+        this.trace = trace;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.kind = kind;
+        this.startNanoTime = startNanoTime;
+    }
+    
+    public OpenSpan tag(String key, Object value) {
+        if (trace != null && value != null) {
+            if (attributes == null) {
+                attributes = new LinkedHashMap<>();
+            }
+            attributes.put(key, value.toString());
+        }
+        return this;
+    }
+    
+    public void rename(String name) {
+        if (trace != null) {
+            this.name = name;
+        }
+    }
+    
+    public void error(Throwable failure) {
+        if (trace != null) {
+            this.error = failure.getClass().getSimpleName() 
+                + (failure.getMessage() != null ? ": " + failure.getMessage() : "");
+        }
+    }
+    
+    public boolean isRecording() {
+        return trace != null;
+    }
+    
+    @Override
+    public void close() {
+        if (trace != null && !closed) {
+            closed = true;
+            trace.finish(this, System.nanoTime());
+        }
+    }
+    
+    public String getSpanId() {
+        return spanId;
+    }
+    
+    String getParentSpanId() {
+        return parentSpanId;
+    }
+    
+    String getName() {
+        return name;
+    }
+    
+    SpanKind getKind() {
+        return kind;
+    }
+    
+    long getStartNanoTime() {
+        return startNanoTime;
+    }
+    
+    String getError() {
+        return error;
+    }
+    
+    Map<String, String> attributes() {
+        return attributes != null ? Map.copyOf(attributes) : Map.of();
+    }
+}
@@ -0,0 +1,147 @@
+package com.bookstore.observability.tracing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ships spans to an OpenTelemetry collector using OTLP over HTTP with the JSON encoding. Spans are
+ * queued without blocking and sent in batches from one background thread; when the collector falls
+ * behind the queue fills and further spans are dropped and counted.
+ */
+@Slf4j
+public class OtlpSpanExporter implements SpanExporter, AutoCloseable {
+    
+    private static final String SCOPE_NAME = "com.bookstore";
+    
+    private final URI endpoint;
+    private final String serviceName;
+    private final int maxBatchSize;
+    private final Duration timeout;
+    private final BlockingQueue<SpanData> queue;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong dropped = new AtomicLong();
+    
+    public OtlpSpanExporter(URI endpoint, String serviceName, int maxQueueSize, int maxBatchSize,
+                            Duration flushInterval, Duration timeout) {
+        this.endpoint = endpoint;
+        this.serviceName = serviceName;
+        this.maxBatchSize = maxBatchSize;
+        this.timeout = timeout;
+        this.queue = new ArrayBlockingQueue<>(maxQueueSize);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("otlp-exporter-");
+        threadFactory.setDaemon(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.scheduler.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(), 
+            TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public void export(SpanData span) {
+        if (!queue.offer(span)) {
+            dropped.incrementAndGet();
+        }
+    }
+    
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+    
+    /**
+     * Sends everything queued so far, batch by batch
+     */
+    public void flush() {
+        List<SpanData> batch = new ArrayList<>(maxBatchSize);
+        while (queue.drainTo(batch, maxBatchSize) > 0) {
+            send(batch);
+            batch.clear();
+        }
+    }
+    
+    private void send(List<SpanData> batch) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(toRequest(batch))))
+                .build();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 300) {
+                log.warn("OTLP collector at {} rejected {} spans with status {}", endpoint, batch.size(), response.statusCode());
+            }
+        } catch (JsonProcessingException ex) {
+            log.warn("Could not encode {} spans for OTLP export", batch.size(), ex);
+        } catch (IOException ex) {
+            log.warn("Could not send {} spans to OTLP collector at {}: {}", batch.size(), endpoint, ex.getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private Map<String, Object> toRequest(List<SpanData> batch) {
+        Map<String, Object> resource = Map.of("attributes", List.of(attribute("service.name", serviceName)));
+        Map<String, Object> scopeSpans = Map.of(
+            "scope", Map.of("name", SCOPE_NAME),
+            "spans", batch.stream().map(OtlpSpanExporter::toSpan).toList());
+        return Map.of("resourceSpans", List.of(Map.of("resource", resource, "scopeSpans", List.of(scopeSpans))));
+    }
+    
+    private static Map<String, Object> toSpan(SpanData span) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("traceId", span.traceId());
+        json.put("spanId", span.spanId());
+        if (span.parentSpanId() != null) {
+            json.put("parentSpanId", span.parentSpanId());
+        }
+        json.put("name", span.name());
+        json.put("kind", span.kind().otlpCode());
+        // 64-bit integers are sent as strings in OTLP/JSON
+        json.put("startTimeUnixNano", Long.toString(span.startEpochNanos()));
+        json.put("endTimeUnixNano", Long.toString(span.endEpochNanos()));
+        json.put("attributes", span.attributes().entrySet().stream()
+            .map(entry -> attribute(entry.getKey(), entry.getValue()))
+            .toList());
+        if (span.error() != null) {
+            json.put("status", Map.of("code", 2, "message", span.error()));
+        }
+        return json;
+    }
+    
+    private static Map<String, Object> attribute(String key, String value) {
+        return Map.of("key", key, "value", Map.of("stringValue", value));
+    }
+    
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
@@ -0,0 +1,107 @@
+package com.bookstore.observability.tracing;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+
+/**
+ * Span bookkeeping for the request running on the current thread. The filter that starts the trace
+ * owns it; instrumentation only calls {@link #span} and {@link #recordCompleted}, which do nothing
+ * when no sampled trace is active. Not thread-safe: spans are opened and closed on the request thread.
+ */
+public final class RequestTrace {
+    
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+    
+    private final SpanRecorder recorder;
+    private final String traceId;
+    private final String remoteParentSpanId;
+    private final boolean sampled;
+    private final Deque<OpenSpan> open = new ArrayDeque<>();
+    // Wall clock is read once; span offsets come from the monotonic clock
+    private final long originEpochNanos;
+    private final long originNanoTime;
+    
+    private RequestTrace(SpanRecorder recorder, String traceId, String remoteParentSpanId, boolean sampled) {
+        this.recorder = recorder;
+        this.traceId = traceId;
+        this.remoteParentSpanId = remoteParentSpanId;
+        this.sampled = sampled;
+        Instant now = Instant.now();
+        this.originNanoTime = System.nanoTime();
+        this.originEpochNanos = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+    
+    public static RequestTrace start(SpanRecorder recorder, String traceId, String remoteParentSpanId, boolean sampled) {
+        RequestTrace trace = new RequestTrace(recorder, traceId, remoteParentSpanId, sampled);
+        CURRENT.set(trace);
+        return trace;
+    }
+    
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+    
+    public static void clear() {
+        CURRENT.remove();
+    }
+    
+    /**
+     * Opens a child of the innermost open span; close it with try-with-resources
+     */
+    public static OpenSpan span(String name, SpanKind kind) {
+        RequestTrace trace = CURRENT.get();
+        if (trace == null || !trace.sampled) {
+            return OpenSpan.NOOP;
+        }
+        return trace.open(name, kind);
+    }
+    
+    /**
+     * Records a span that has already finished, such as a JDBC call measured by the driver wrapper
+     */
+    public static void recordCompleted(String name, SpanKind kind, long durationNanos, Map<String, String> attributes) {
+        RequestTrace trace = CURRENT.get();
+        if (trace == null || !trace.sampled) {
+            return;
+        }
+        long endNanoTime = System.nanoTime();
+        trace.recorder.record(new SpanData(trace.traceId, TraceParent.randomSpanId(), trace.currentSpanId(), name, 
+            kind, trace.epochNanos(endNanoTime - durationNanos), durationNanos, attributes, null));
+    }
+    
+    public OpenSpan open(String name, SpanKind kind) {
+        if (!sampled) {
+            return OpenSpan.NOOP;
+        }
+        OpenSpan span = new OpenSpan(this, TraceParent.randomSpanId(), currentSpanId(), name, kind, System.nanoTime());
+        open.push(span);
+        return span;
+    }
+    
+    public String getTraceId() {
+        return traceId;
+    }
+    
+    public boolean isSampled() {
+        return sampled;
+    }
+    
+    void finish(OpenSpan span, long endNanoTime) {
+        // Spans normally close innermost first; tolerate a missed close further down the stack
+        open.remove(span);
+        recorder.record(new SpanData(traceId, span.getSpanId(), span.getParentSpanId(), span.getName(), 
+            span.getKind(), epochNanos(span.getStartNanoTime()), endNanoTime - span.getStartNanoTime(), 
+            span.attributes(), span.getError()));
+    }
+    
+    private String currentSpanId() {
+        OpenSpan parent = open.peek();
+        return parent != null ? parent.getSpanId() : remoteParentSpanId;
+    }
+    
+    private long epochNanos(long nanoTime) {
+        return originEpochNanos + (nanoTime - originNanoTime);
+    }
+}
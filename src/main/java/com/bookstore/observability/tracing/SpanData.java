@@ -0,0 +1,26 @@
+package com.bookstore.observability.tracing;
+
+import java.util.Map;
+
+/**
+ * A finished span as kept by the {@link SpanRecorder} and handed to exporters.
+ *
+ * @param parentSpanId   parent within this trace, possibly a remote caller's span; null for a new trace
+ * @param startEpochNanos wall-clock start in nanoseconds since the epoch
+ * @param error          exception summary when the span ended abnormally, otherwise null
+ */
+public record SpanData(
+    String traceId,
+    String spanId,
+    String parentSpanId,
+    String name,
+    SpanKind kind,
+    long startEpochNanos,
+    long durationNanos,
+    Map<String, String> attributes,
+    String error
+) {
+    public long endEpochNanos() {
+        return startEpochNanos + durationNanos;
+    }
+}
@@ -0,0 +1,10 @@
+package com.bookstore.observability.tracing;
+
+/**
+ * Receives every recorded span. Called on the thread that ended the span, so implementations must
+ * only hand the span off and return.
+ */
+public interface SpanExporter {
+    
+    void export(SpanData span);
+}
@@ -0,0 +1,68 @@
+package com.bookstore.observability.tracing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the most recent finished spans in a lock-free ring buffer: writers claim a slot with one
+ * atomic increment and overwrite whatever was there. Lookups scan the ring, which is fine for an
+ * occasional diagnostic read.
+ */
+public class SpanRecorder {
+    
+    private final AtomicReferenceArray<SpanData> ring;
+    private final AtomicLong cursor = new AtomicLong();
+    private final List<SpanExporter> exporters;
+    
+    public SpanRecorder(int capacity, List<SpanExporter> exporters) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.exporters = List.copyOf(exporters);
+    }
+    
+    public void record(SpanData span) {
+        ring.set((int) (cursor.getAndIncrement() % ring.length()), span);
+        for (SpanExporter exporter : exporters) {
+            exporter.export(span);
+        }
+    }
+    
+    /**
+     * Returns the retained spans of one trace ordered by start time; spans already overwritten are missing
+     */
+    public List<SpanData> findTrace(String traceId) {
+        List<SpanData> spans = new ArrayList<>();
+        for (int i = 0; i < ring.length(); i++) {
+            SpanData span = ring.get(i);
+            if (span != null && span.traceId().equals(traceId)) {
+                spans.add(span);
+            }
+        }
+        spans.sort(Comparator.comparingLong(SpanData::startEpochNanos));
+        return spans;
+    }
+    
+    /**
+     * Returns the server spans of the most recent requests, newest first, one per trace
+     */
+    public List<SpanData> recentRequests(int limit) {
+        Map<String, SpanData> byTrace = new LinkedHashMap<>();
+        for (int i = 0; i < ring.length(); i++) {
+            SpanData span = ring.get(i);
+            if (span != null && span.kind() == SpanKind.SERVER) {
+                byTrace.putIfAbsent(span.traceId(), span);
+            }
+        }
+        return byTrace.values().stream()
+            .sorted(Comparator.comparingLong(SpanData::startEpochNanos).reversed())
+            .limit(limit)
+            .toList();
+    }
+}
@@ -0,0 +1,64 @@
+package com.bookstore.observability.tracing;
+
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * W3C trace context {@code traceparent} header: {@code 00-<32 hex trace id>-<16 hex parent id>-<flags>}
+ */
+public record TraceParent(String traceId, String parentSpanId, boolean sampled) {
+    
+    public static final String HEADER = "traceparent";
+    
+    private static final Pattern FORMAT = Pattern.compile(
+        "([0-9a-f]{2})-([0-9a-f]{32})-([0-9a-f]{16})-([0-9a-f]{2})(-.*)?");
+    private static final String INVALID_TRACE_ID = "0".repeat(32);
+    private static final String INVALID_SPAN_ID = "0".repeat(16);
+    private static final HexFormat HEX = HexFormat.of();
+    
+    /**
+     * Parses a traceparent header, returning empty for anything the specification says to ignore
+     */
+    public static Optional<TraceParent> parse(String header) {
+        if (header == null) {
+            return Optional.empty();
+        }
+        var matcher = FORMAT.matcher(header.trim());
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        String version = matcher.group(1);
+        // Version ff is forbidden; version 00 must not carry extra fields, later versions may
+        if ("ff".equals(version) || ("00".equals(version) && matcher.group(5) != null)) {
+            return Optional.empty();
+        }
+        String traceId = matcher.group(2);
+        String parentSpanId = matcher.group(3);
+        if (INVALID_TRACE_ID.equals(traceId) || INVALID_SPAN_ID.equals(parentSpanId)) {
+            return Optional.empty();
+        }
+        boolean sampled = (HEX.fromHexDigits(matcher.group(4)) & 0x01) != 0;
+        return Optional.of(new TraceParent(traceId, parentSpanId, sampled));
+    }
+    
+    public static String format(String traceId, String spanId, boolean sampled) {
+        return "00-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+    }
+    
+    public static String randomTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long high = random.nextLong();
+        long low = random.nextLong();
+        if (high == 0 && low == 0) {
+            low = 1;
+        }
+        return HEX.toHexDigits(high) + HEX.toHexDigits(low);
+    }
+    
+    public static String randomSpanId() {
+        long id = ThreadLocalRandom.current().nextLong();
+        return HEX.toHexDigits(id == 0 ? 1 : id);
+    }
+}
@@ -0,0 +1,52 @@
+package com.bookstore.observability.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Opens a span around every controller, service and repository call made while a request is traced.
+ * Ordered first so service spans include retries, transaction commit and the flush it triggers.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class TracingAspect {
+    
+    @Around("within(@org.springframework.web.bind.annotation.RestController *)")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, joinPoint.getSignature().getDeclaringType().getSimpleName(), "controller");
+    }
+    
+    @Around("within(@org.springframework.stereotype.Service *)")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, joinPoint.getSignature().getDeclaringType().getSimpleName(), "service");
+    }
+    
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        // The signature names the declaring Spring Data interface, e.g. CrudRepository; report ours instead
+        Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis());
+        String type = interfaces.length > 0 ? interfaces[0].getSimpleName() 
+            : joinPoint.getSignature().getDeclaringType().getSimpleName();
+        return trace(joinPoint, type, "repository");
+    }
+    
+    private static Object trace(ProceedingJoinPoint joinPoint, String type, String layer) throws Throwable {
+        RequestTrace trace = RequestTrace.current();
+        if (trace == null || !trace.isSampled()) {
+            return joinPoint.proceed();
+        }
+        try (OpenSpan span = trace.open(type + "." + joinPoint.getSignature().getName(), SpanKind.INTERNAL)) {
+            span.tag("layer", layer);
+            try {
+                return joinPoint.proceed();
+            } catch (Throwable failure) {
+                span.error(failure);
+                throw failure;
+            }
+        }
+    }
+}
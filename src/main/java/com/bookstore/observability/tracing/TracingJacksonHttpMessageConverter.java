@@ -0,0 +1,29 @@
+package com.bookstore.observability.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * The default JSON converter with a span around response serialization, which runs after the
+ * controller has returned and so is otherwise invisible in the trace
+ */
+public class TracingJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+    
+    public TracingJacksonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+    
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) 
+            throws IOException, HttpMessageNotWritableException {
+        try (OpenSpan span = RequestTrace.span("json.serialize", SpanKind.INTERNAL)) {
+            span.tag("type", object != null ? object.getClass().getSimpleName() : null);
+            super.writeInternal(object, type, outputMessage);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.bookstore.observability.tracing;
+
+import com.bookstore.observability.JdbcExecution;
+import com.bookstore.observability.JdbcExecutionListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Adds one span per JDBC statement under whichever span is open when the statement ran
+ */
+public class TracingJdbcListener implements JdbcExecutionListener {
+    
+    private static final int MAX_STATEMENT_LENGTH = 300;
+    
+    @Override
+    public void afterExecute(JdbcExecution execution) {
+        RequestTrace trace = RequestTrace.current();
+        if (trace == null || !trace.isSampled()) {
+            return;
+        }
+        String sql = execution.sql() != null ? execution.sql() : "";
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put("db.statement", sql.length() <= MAX_STATEMENT_LENGTH ? sql : sql.substring(0, MAX_STATEMENT_LENGTH) + "...");
+        if (execution.rows() >= 0) {
+            attributes.put("db.rows_affected", Long.toString(execution.rows()));
+        }
+        if (execution.batch()) {
+            attributes.put("db.batch", "true");
+        }
+        if (!execution.isSuccess()) {
+            attributes.put("error", execution.failure().getClass().getSimpleName());
+        }
+        RequestTrace.recordCompleted("jdbc " + operation(sql), SpanKind.CLIENT, execution.elapsedNanos(), attributes);
+    }
+    
+    private static String operation(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? "statement" : trimmed.substring(0, end).toLowerCase();
+    }
+}
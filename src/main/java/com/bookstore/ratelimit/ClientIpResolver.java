@@ -0,0 +1,71 @@
+package com.bookstore.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Determines the client address for rate limiting. Forwarding headers are only believed when the
+ * connection comes from a trusted proxy. X-Forwarded-For is then read from the right, skipping
+ * trusted hops: entries further left were supplied by the client and can be rotated freely.
+ */
+public class ClientIpResolver {
+    
+    // Literal IPv4 or IPv6 addresses only; anything else must never reach a resolver lookup
+    private static final Pattern IP_LITERAL = Pattern.compile("[0-9.]{7,15}|[0-9a-fA-F.]*:[0-9a-fA-F:.]*");
+    
+    private final List<IpAddressMatcher> trustedProxies;
+    
+    public ClientIpResolver(List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies.stream()
+            .map(String::trim)
+            .filter(StringUtils::hasText)
+            .map(IpAddressMatcher::new)
+            .toList();
+    }
+    
+    public String resolve(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!isTrusted(remoteAddr)) {
+            return remoteAddr;
+        }
+        
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (StringUtils.hasText(forwardedFor)) {
+            String[] hops = forwardedFor.split(",");
+            String client = remoteAddr;
+            for (int i = hops.length - 1; i >= 0; i--) {
+                String hop = hops[i].trim();
+                if (hop.isEmpty()) {
+                    continue;
+                }
+                client = hop;
+                if (!isTrusted(hop)) {
+                    break;
+                }
+            }
+            return client;
+        }
+        
+        String realIp = request.getHeader("X-Real-IP");
+        if (StringUtils.hasText(realIp)) {
+            return realIp.trim();
+        }
+        return remoteAddr;
+    }
+    
+    private boolean isTrusted(String address) {
+        if (trustedProxies.isEmpty() || address == null || !IP_LITERAL.matcher(address).matches()) {
+            return false;
+        }
+        for (IpAddressMatcher matcher : trustedProxies) {
+            if (matcher.matches(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
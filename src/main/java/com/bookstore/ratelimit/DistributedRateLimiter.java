@@ -0,0 +1,164 @@
+package com.bookstore.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Enforces one limit per key across all instances using {@link RateLimitBucketStore}.
+ *
+ * <p>Each instance takes tokens from the shared window in batches of at least {@code prefetch} and spends
+ * them locally, so only one request in {@code prefetch} per client reaches the database. A request
+ * costing more than the batch fetches what it is missing. Tokens prefetched
+ * but unused when the window ends are lost, which makes the cluster-wide limit slightly stricter, never
+ * looser. A rejected client is answered locally until the window resets.
+ *
+ * <p>When the store fails or answers slower than {@code slowThreshold}, the instance limits with its
+ * local buckets for {@code fallbackCooldown}, as it would without the shared store.
+ */
+@Slf4j
+public class DistributedRateLimiter {
+    
+    private final RateLimitBucketStore store;
+    private final Duration period;
+    private final long prefetch;
+    private final long slowThresholdNanos;
+    private final long fallbackCooldownNanos;
+    private final Cache<String, Allowance> allowances;
+    private final Timer storeTimer;
+    private final Counter fallbacks;
+    
+    private volatile long fallbackUntilNanos;
+    private volatile boolean inFallback;
+    
+    public DistributedRateLimiter(RateLimitBucketStore store, Duration period, long prefetch,
+                                  Duration slowThreshold, Duration fallbackCooldown, long maxKeys,
+                                  MeterRegistry meterRegistry) {
+        this.store = store;
+        this.period = period;
+        this.prefetch = Math.max(1, prefetch);
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.fallbackCooldownNanos = fallbackCooldown.toNanos();
+        this.allowances = Caffeine.newBuilder()
+            .expireAfterAccess(period)
+            .maximumSize(maxKeys)
+            .build();
+        this.storeTimer = Timer.builder("ratelimit.store")
+            .description("Round trips to the shared rate limit store")
+            .register(meterRegistry);
+        this.fallbacks = Counter.builder("ratelimit.store.fallbacks")
+            .description("Times the shared store was bypassed for local limiting")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Takes {@code cost} tokens for {@code key} from a shared window of {@code capacity} tokens, using
+     * {@code localBucket} while the shared store is unavailable.
+     */
+    public RateLimitDecision tryConsume(String key, long cost, long capacity, Supplier<Bucket> localBucket) {
+        long now = System.nanoTime();
+        if (inFallback && now - fallbackUntilNanos < 0) {
+            return RateLimitDecision.consume(localBucket.get(), cost);
+        }
+        
+        Allowance allowance = allowances.get(key, k -> new Allowance());
+        // Requests of one client queue here while its batch is fetched, instead of each fetching one. A lock
+        // rather than a monitor, so virtual threads waiting out the database round trip do not pin carriers
+        allowance.lock.lock();
+        try {
+            if (allowance.fetched && now - allowance.validUntilNanos < 0) {
+                if (allowance.tokens >= cost) {
+                    allowance.tokens -= cost;
+                    return RateLimitDecision.allowed(allowance.tokens + allowance.sharedRemaining);
+                }
+                if (allowance.rejected) {
+                    return RateLimitDecision.rejected(secondsUntil(allowance.validUntilNanos, now));
+                }
+            } else {
+                // Tokens left from an ended window are not carried over
+                allowance.tokens = 0;
+            }
+            
+            long requested = Math.min(capacity, Math.max(prefetch, cost - allowance.tokens));
+            RateLimitBucketStore.Grant grant;
+            long started = System.nanoTime();
+            try {
+                grant = store.acquire(key, requested, capacity, period);
+            } catch (DataAccessException e) {
+                startFallback("failed: " + e.getMessage());
+                return RateLimitDecision.consume(localBucket.get(), cost);
+            } finally {
+                storeTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+            long elapsed = System.nanoTime() - started;
+            if (elapsed > slowThresholdNanos) {
+                // This answer is still valid; the next requests avoid the slow store
+                startFallback("took " + Duration.ofNanos(elapsed).toMillis() + " ms");
+            } else if (inFallback) {
+                inFallback = false;
+            }
+            
+            long validUntil = started + grant.windowRemaining().toNanos();
+            allowance.fetched = true;
+            allowance.validUntilNanos = validUntil;
+            allowance.sharedRemaining = grant.remaining();
+            allowance.tokens += grant.granted();
+            // A short grant means the shared window is exhausted
+            allowance.rejected = grant.granted() < requested;
+            if (allowance.tokens < cost) {
+                return RateLimitDecision.rejected(secondsUntil(validUntil, now));
+            }
+            allowance.tokens -= cost;
+            return RateLimitDecision.allowed(allowance.tokens + allowance.sharedRemaining);
+        } finally {
+            allowance.lock.unlock();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${rate-limit.distributed.cleanup-interval:PT10M}")
+    public void purgeExpired() {
+        try {
+            int removed = store.purgeExpired(period);
+            log.debug("Purged {} expired rate limit windows", removed);
+        } catch (DataAccessException e) {
+            log.warn("Failed to purge expired rate limit windows: {}", e.getMessage());
+        }
+    }
+    
+    public boolean isInFallback() {
+        return inFallback && System.nanoTime() - fallbackUntilNanos < 0;
+    }
+    
+    private void startFallback(String reason) {
+        fallbackUntilNanos = System.nanoTime() + fallbackCooldownNanos;
+        if (!inFallback) {
+            log.warn("Rate limit store {}; limiting locally for {}", reason, Duration.ofNanos(fallbackCooldownNanos));
+        }
+        inFallback = true;
+        fallbacks.increment();
+    }
+    
+    private static long secondsUntil(long deadlineNanos, long now) {
+        return Math.max(1, (deadlineNanos - now + 999_999_999L) / 1_000_000_000L);
+    }
+    
+    private static final class Allowance {
+        final ReentrantLock lock = new ReentrantLock();
+        long tokens;
+        long sharedRemaining;
+        long validUntilNanos;
+        boolean fetched;
+        boolean rejected;
+    }
+}
@@ -0,0 +1,67 @@
+package com.bookstore.ratelimit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Fixed-window counters in the rate_limit_buckets table, shared by every instance. A single upsert
+ * resets an expired window, adds the requested tokens and returns the new total, so concurrent
+ * instances never lose an update and no row lock is held between statements. Windows are measured
+ * with the database clock, so instances with skewed clocks still agree.
+ */
+public class RateLimitBucketStore {
+    
+    private static final String ACQUIRE = """
+        INSERT INTO rate_limit_buckets AS b (bucket_key, window_start, consumed)
+        VALUES (?, now(), ?)
+        ON CONFLICT (bucket_key) DO UPDATE SET
+            window_start = CASE WHEN b.window_start <= now() - make_interval(secs => ?)
+                THEN now() ELSE b.window_start END,
+            consumed = CASE WHEN b.window_start <= now() - make_interval(secs => ?)
+                THEN EXCLUDED.consumed ELSE b.consumed + EXCLUDED.consumed END
+        RETURNING b.consumed,
+            CEIL(EXTRACT(EPOCH FROM (b.window_start + make_interval(secs => ?) - now())) * 1000)::BIGINT
+        """;
+    
+    private static final String PURGE =
+        "DELETE FROM rate_limit_buckets WHERE window_start <= now() - make_interval(secs => ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public RateLimitBucketStore(DataSource dataSource, Duration queryTimeout) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // JDBC timeouts are whole seconds; slower calls are also caught by DistributedRateLimiter
+        this.jdbcTemplate.setQueryTimeout((int) Math.max(1, (queryTimeout.toMillis() + 999) / 1000));
+    }
+    
+    /**
+     * Takes up to {@code requested} tokens from the key's current window of {@code period} holding
+     * {@code capacity} tokens.
+     */
+    public Grant acquire(String key, long requested, long capacity, Duration period) {
+        double periodSeconds = period.toMillis() / 1000.0;
+        return jdbcTemplate.queryForObject(ACQUIRE, (rs, rowNum) -> {
+            long consumed = rs.getLong(1);
+            long windowRemainingMillis = Math.max(0, rs.getLong(2));
+            // Both branches of the upsert leave consumed at the previous total plus requested
+            long before = consumed - requested;
+            long granted = Math.max(0, Math.min(requested, capacity - before));
+            return new Grant(granted, Math.max(0, capacity - consumed), Duration.ofMillis(windowRemainingMillis));
+        }, key, requested, periodSeconds, periodSeconds, periodSeconds);
+    }
+    
+    /**
+     * Removes counters whose window ended at least {@code period} ago.
+     */
+    public int purgeExpired(Duration period) {
+        return jdbcTemplate.update(PURGE, period.multipliedBy(2).toMillis() / 1000.0);
+    }
+    
+    /**
+     * Tokens granted out of those requested, tokens left in the shared window, and time until it resets.
+     */
+    public record Grant(long granted, long remaining, Duration windowRemaining) {
+    }
+}
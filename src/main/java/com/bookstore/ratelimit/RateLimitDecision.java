@@ -0,0 +1,30 @@
+package com.bookstore.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+
+/**
+ * Outcome of a rate limit check, with the tokens left for the client and, when rejected, how long to wait
+ */
+public record RateLimitDecision(boolean allowed, long remaining, long retryAfterSeconds) {
+    
+    public static RateLimitDecision allowed(long remaining) {
+        return new RateLimitDecision(true, remaining, 0);
+    }
+    
+    public static RateLimitDecision rejected(long retryAfterSeconds) {
+        return new RateLimitDecision(false, 0, retryAfterSeconds);
+    }
+    
+    /**
+     * Takes {@code cost} tokens from a local bucket; one probe yields both the remaining tokens and
+     * the wait until enough have refilled.
+     */
+    public static RateLimitDecision consume(Bucket bucket, long cost) {
+        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(cost);
+        if (probe.isConsumed()) {
+            return allowed(probe.getRemainingTokens());
+        }
+        return rejected(Math.max(1, (probe.getNanosToWaitForRefill() + 999_999_999L) / 1_000_000_000L));
+    }
+}
@@ -0,0 +1,105 @@
+package com.bookstore.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Applies {@link RateLimitProperties} to a request: who is charged, how many tokens their tier grants
+ * per period, and what the request costs.
+ *
+ * <p>Authenticated principals are limited per principal, so clients behind one NAT or proxy do not
+ * share a budget and a client cannot escape its budget by changing address. Everyone else is limited
+ * per client IP, keyed by the bare address.
+ */
+public class RateLimitPolicy {
+    
+    private static final String PRINCIPAL_KEY_PREFIX = "user:";
+    
+    private final Duration period;
+    private final Map<String, Long> tiers;
+    private final List<CostRule> costs;
+    private final ClientIpResolver clientIpResolver;
+    
+    public RateLimitPolicy(RateLimitProperties properties) {
+        this.period = properties.period();
+        this.tiers = properties.tiers();
+        this.costs = properties.costs().stream()
+            .map(cost -> new CostRule(
+                StringUtils.hasText(cost.method()) ? cost.method().toUpperCase(Locale.ROOT) : null,
+                PathPatternParser.defaultInstance.parse(cost.pattern()),
+                Math.max(1, cost.cost())))
+            .toList();
+        this.clientIpResolver = new ClientIpResolver(properties.trustedProxies());
+    }
+    
+    public Duration getPeriod() {
+        return period;
+    }
+    
+    /**
+     * @param authentication the verified caller, or {@code null} when unknown
+     */
+    public RateLimitTarget resolve(HttpServletRequest request, Authentication authentication) {
+        String clientIp = clientIpResolver.resolve(request);
+        long anonymousCapacity = tiers.get(RateLimitProperties.ANONYMOUS_TIER);
+        
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return new RateLimitTarget(clientIp, clientIp, anonymousCapacity, costOf(request, anonymousCapacity));
+        }
+        
+        long capacity = anonymousCapacity;
+        String tier = RateLimitProperties.ANONYMOUS_TIER;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            String role = authority.getAuthority();
+            if (role == null) {
+                continue;
+            }
+            Long tokens = tiers.get(role.replaceFirst("^ROLE_", "").toUpperCase(Locale.ROOT));
+            if (tokens != null && tokens > capacity) {
+                capacity = tokens;
+                tier = role;
+            }
+        }
+        // The tier is part of the key so a role change gets a bucket of the new size
+        String key = PRINCIPAL_KEY_PREFIX + authentication.getName() + "|" + tier;
+        return new RateLimitTarget(key, clientIp, capacity, costOf(request, capacity));
+    }
+    
+    private long costOf(HttpServletRequest request, long capacity) {
+        if (costs.isEmpty()) {
+            return 1;
+        }
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (CostRule rule : costs) {
+            if ((rule.method() == null || rule.method().equals(request.getMethod())) && rule.pattern().matches(path)) {
+                // A request costing more than the whole tier could never succeed
+                return Math.min(rule.cost(), capacity);
+            }
+        }
+        return 1;
+    }
+    
+    /**
+     * @param key      bucket key; the bare client IP for anonymous callers
+     * @param clientIp resolved client address, for logging and error responses
+     * @param capacity tokens per period for the caller's tier
+     * @param cost     tokens this request consumes
+     */
+    public record RateLimitTarget(String key, String clientIp, long capacity, long cost) {
+    }
+    
+    private record CostRule(String method, PathPattern pattern, long cost) {
+    }
+}
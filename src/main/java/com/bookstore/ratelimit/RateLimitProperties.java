@@ -0,0 +1,58 @@
+package com.bookstore.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rate limit plans and request costs.
+ *
+ * @param period         window over which each tier's tokens are granted
+ * @param tiers          tokens per period by role name, plus {@value #ANONYMOUS_TIER} for unauthenticated clients;
+ *                       a principal gets the largest tier among its roles
+ * @param costs          tokens charged per request; the first matching rule applies, otherwise 1
+ * @param trustedProxies addresses or CIDR ranges whose X-Forwarded-For and X-Real-IP headers are believed
+ */
+@ConfigurationProperties("rate-limit")
+public record RateLimitProperties(
+    Duration period,
+    Map<String, Long> tiers,
+    List<EndpointCost> costs,
+    List<String> trustedProxies
+) {
+    
+    public static final String ANONYMOUS_TIER = "ANONYMOUS";
+    
+    private static final long DEFAULT_ANONYMOUS_TOKENS = 100;
+    
+    public RateLimitProperties {
+        period = period != null ? period : Duration.ofMinutes(1);
+        // Environment variables arrive lower-cased; role names are compared upper-case
+        Map<String, Long> normalized = new HashMap<>();
+        if (tiers != null) {
+            tiers.forEach((name, tokens) -> normalized.merge(name.toUpperCase(Locale.ROOT), tokens, Math::max));
+        }
+        normalized.putIfAbsent(ANONYMOUS_TIER, DEFAULT_ANONYMOUS_TOKENS);
+        tiers = Map.copyOf(normalized);
+        costs = costs != null ? List.copyOf(costs) : List.of();
+        trustedProxies = trustedProxies != null ? List.copyOf(trustedProxies) : List.of();
+    }
+    
+    /**
+     * 100 requests per minute per client IP, every request costing one token, no trusted proxies
+     */
+    public static RateLimitProperties defaults() {
+        return new RateLimitProperties(null, null, null, null);
+    }
+    
+    /**
+     * @param method  HTTP method, or blank for any
+     * @param pattern path pattern such as {@code /api/inventory/{bookId}/adjust}
+     */
+    public record EndpointCost(String method, String pattern, long cost) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.bookstore.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Identifies the caller of a request that has not been through the security filter chain yet, using
+ * only credentials that were verified on an earlier request. It never hashes a password or checks a
+ * signature, so rate limiting can pick the caller's bucket before authentication costs anything.
+ */
+@FunctionalInterface
+public interface VerifiedPrincipalLookup {
+    
+    /**
+     * @return the caller's authentication, or {@code null} when the credentials are absent or not
+     *         known to be valid
+     */
+    Authentication lookup(HttpServletRequest request);
+}
@@ -1,6 +1,9 @@
 package com.bookstore.repository;
 
 import com.bookstore.domain.Book;
+import com.bookstore.dto.InventoryItemDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -9,12 +12,16 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, UUID>, JpaSpecificationExecutor<Book> {
@@ -34,16 +41,54 @@ public interface BookRepository extends JpaRepository<Book, UUID>, JpaSpecificat
     @Query("DELETE FROM Book b WHERE b.id = :id")
     long deleteBookById(@Param("id") UUID id);
 
-    @Query("SELECT b FROM Book b WHERE (b.quantityInStock - b.reservedQuantity) <= b.reorderLevel")
-    List<Book> findBooksNeedingRestock();
+    @Query(value = "SELECT new com.bookstore.dto.InventoryItemDto(b.id, b.title, b.isbn, b.quantityInStock, " +
+                   "b.reservedQuantity, b.availableQuantity, b.reorderLevel, b.restockShortfall, b.viewCount) " +
+                   "FROM Book b WHERE b.availableQuantity <= b.reorderLevel",
+           countQuery = "SELECT COUNT(b) FROM Book b WHERE b.availableQuantity <= b.reorderLevel")
+    Page<InventoryItemDto> findInventoryNeedingRestock(Pageable pageable);
 
-    @Query("SELECT b FROM Book b WHERE (b.quantityInStock - b.reservedQuantity) <= :threshold")
-    List<Book> findBooksWithLowStock(@Param("threshold") int threshold);
+    @Query(value = "SELECT new com.bookstore.dto.InventoryItemDto(b.id, b.title, b.isbn, b.quantityInStock, " +
+                   "b.reservedQuantity, b.availableQuantity, b.reorderLevel, b.restockShortfall, b.viewCount) " +
+                   "FROM Book b WHERE b.availableQuantity <= :threshold",
+           countQuery = "SELECT COUNT(b) FROM Book b WHERE b.availableQuantity <= :threshold")
+    Page<InventoryItemDto> findInventoryWithLowStock(@Param("threshold") int threshold, Pageable pageable);
 
-    @Query("SELECT b FROM Book b WHERE b.quantityInStock - b.reservedQuantity > 0 ORDER BY b.viewCount DESC")
+    // Fetch size makes the PostgreSQL driver use a cursor instead of buffering the whole report
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.bookstore.dto.InventoryItemDto(b.id, b.title, b.isbn, b.quantityInStock, " +
+           "b.reservedQuantity, b.availableQuantity, b.reorderLevel, b.restockShortfall, b.viewCount) " +
+           "FROM Book b WHERE b.availableQuantity <= b.reorderLevel " +
+           "ORDER BY b.restockShortfall DESC, b.id")
+    Stream<InventoryItemDto> streamInventoryNeedingRestock();
+
+    @Query("SELECT b FROM Book b WHERE b.availableQuantity > 0 ORDER BY b.viewCount DESC")
     List<Book> findAvailableBooksByPopularity(Pageable pageable);
 
     @Modifying
     @Query("UPDATE Book b SET b.viewCount = b.viewCount + 1 WHERE b.id = :bookId")
     void incrementViewCount(@Param("bookId") UUID bookId);
+
+    @Query("SELECT COUNT(b) AS totalBooks, " +
+           "COALESCE(SUM(CASE WHEN b.availableQuantity <= b.reorderLevel THEN 1 ELSE 0 END), 0) AS restockNeeded, " +
+           "SUM(b.quantityInStock) AS unitsInStock, " +
+           "SUM(b.reservedQuantity) AS reservedUnits, " +
+           "SUM(b.availableQuantity) AS availableUnits, " +
+           "SUM(b.quantityInStock * b.costPrice) AS valuationAtCost, " +
+           "SUM(b.quantityInStock * b.price) AS valuationAtPrice " +
+           "FROM Book b")
+    InventorySnapshot getInventorySnapshot();
+    
+    // Rows are locked in primary key order so concurrent multi-book reservations cannot deadlock
+    @Query(value = "SELECT id, available_quantity AS available, reorder_level AS \"reorderLevel\" FROM books " +
+                   "WHERE id IN (:ids) ORDER BY id FOR UPDATE",
+           nativeQuery = true)
+    List<StockLevel> lockStockLevels(@Param("ids") Collection<UUID> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.reservedQuantity = b.reservedQuantity + :quantity, " +
+           "b.version = b.version + 1, b.updatedAt = :now " +
+           "WHERE b.id = :bookId AND b.availableQuantity >= :quantity")
+    int reserveIfAvailable(@Param("bookId") UUID bookId,
+                           @Param("quantity") int quantity,
+                           @Param("now") Instant now);
 }
\ No newline at end of file
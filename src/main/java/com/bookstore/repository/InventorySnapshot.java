@@ -0,0 +1,24 @@
+package com.bookstore.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Catalogue-wide inventory figures computed in a single aggregate query.
+ * Sums are null when the catalogue is empty.
+ */
+public interface InventorySnapshot {
+    
+    Long getTotalBooks();
+    
+    Long getRestockNeeded();
+    
+    Long getUnitsInStock();
+    
+    Long getReservedUnits();
+    
+    Long getAvailableUnits();
+    
+    BigDecimal getValuationAtCost();
+    
+    BigDecimal getValuationAtPrice();
+}
@@ -0,0 +1,37 @@
+package com.bookstore.repository;
+
+import com.bookstore.domain.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
+    
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+    
+    /**
+     * Marks a token used unless another request got there first; returns 0 for the loser.
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revokedAt = :now, r.updatedAt = :now, r.version = r.version + 1 " +
+           "WHERE r.id = :id AND r.revokedAt IS NULL")
+    int markRevoked(@Param("id") UUID id, @Param("now") Instant now);
+    
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revokedAt = :now, r.updatedAt = :now, r.version = r.version + 1 " +
+           "WHERE r.familyId = :familyId AND r.revokedAt IS NULL")
+    int revokeFamily(@Param("familyId") UUID familyId, @Param("now") Instant now);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,43 @@
+package com.bookstore.repository;
+
+import com.bookstore.domain.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, UUID> {
+    
+    boolean existsByJti(String jti);
+    
+    /**
+     * Records a revocation unless the jti is already revoked; a duplicate must not abort the caller's transaction
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO revoked_tokens (id, jti, expires_at, created_at, updated_at, version)
+        VALUES (:id, :jti, :expiresAt, :now, :now, 0)
+        ON CONFLICT (jti) DO NOTHING
+        """, nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id, @Param("jti") String jti,
+                       @Param("expiresAt") Instant expiresAt, @Param("now") Instant now);
+    
+    @Query("SELECT r.jti FROM RevokedToken r WHERE r.expiresAt > :now")
+    List<String> findActiveJtis(@Param("now") Instant now);
+    
+    @Query("SELECT r.jti FROM RevokedToken r WHERE r.createdAt >= :since AND r.expiresAt > :now")
+    List<String> findJtisRevokedSince(@Param("since") Instant since, @Param("now") Instant now);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,15 @@
+package com.bookstore.repository;
+
+import java.util.UUID;
+
+/**
+ * Projection of the stock columns needed to decide a reservation.
+ */
+public interface StockLevel {
+    
+    UUID getId();
+    
+    Integer getAvailable();
+    
+    Integer getReorderLevel();
+}
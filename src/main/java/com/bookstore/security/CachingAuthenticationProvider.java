@@ -0,0 +1,158 @@
+package com.bookstore.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsChecker;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Objects;
+
+/**
+ * Remembers recent successful password verifications so repeat HTTP Basic requests skip BCrypt.
+ * 
+ * <p>Entries are keyed by an HMAC of username and password under a per-process random key, so the
+ * cache never holds anything that could be brute-forced offline. Only successes are cached. A hit is
+ * honoured only while the stored password hash is unchanged and the account is still usable, so a
+ * password change or a locked account takes effect on the next request.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+    
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    
+    private final AuthenticationProvider delegate;
+    private final UserDetailsService userDetailsService;
+    private final UserDetailsChecker accountChecker = new AccountStatusUserDetailsChecker();
+    private final Cache<String, String> verified;
+    private final Mac prototype;
+    
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, UserDetailsService userDetailsService,
+                                         Duration ttl, long maxSize) {
+        this.delegate = delegate;
+        this.userDetailsService = userDetailsService;
+        this.verified = Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        try {
+            this.prototype = Mac.getInstance(HMAC_ALGORITHM);
+            this.prototype.init(new SecretKeySpec(secret, HMAC_ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+    
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (username == null || !(credentials instanceof String password)) {
+            return delegate.authenticate(authentication);
+        }
+        
+        String key = cacheKey(username, password);
+        String verifiedHash = verified.getIfPresent(key);
+        if (verifiedHash != null) {
+            Authentication cached = fromCache(key, username, verifiedHash, authentication);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        
+        Authentication result = delegate.authenticate(authentication);
+        // Read the hash now: the provider manager erases the principal's credentials once we return
+        if (result != null && result.isAuthenticated() && result.getPrincipal() instanceof UserDetails user 
+                && user.getPassword() != null) {
+            verified.put(key, user.getPassword());
+        }
+        return result;
+    }
+    
+    /**
+     * Returns the authentication for credentials verified within the TTL, or {@code null} when they
+     * would have to be checked against the password hash. Never runs the delegate.
+     */
+    public Authentication peek(Authentication authentication) {
+        String username = authentication.getName();
+        if (username == null || !(authentication.getCredentials() instanceof String password)) {
+            return null;
+        }
+        String key = cacheKey(username, password);
+        String verifiedHash = verified.getIfPresent(key);
+        if (verifiedHash == null) {
+            return null;
+        }
+        try {
+            return fromCache(key, username, verifiedHash, authentication);
+        } catch (AuthenticationException e) {
+            return null;
+        }
+    }
+    
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+    
+    public Cache<String, String> getCache() {
+        return verified;
+    }
+    
+    private Authentication fromCache(String key, String username, String verifiedHash, Authentication request) {
+        UserDetails user;
+        try {
+            user = userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            verified.invalidate(key);
+            return null;
+        }
+        // A changed hash means the password was changed since this entry was verified
+        if (!Objects.equals(user.getPassword(), verifiedHash)) {
+            verified.invalidate(key);
+            return null;
+        }
+        try {
+            accountChecker.check(user);
+        } catch (AuthenticationException e) {
+            verified.invalidate(key);
+            throw e;
+        }
+        UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(
+            user, request.getCredentials(), user.getAuthorities());
+        result.setDetails(request.getDetails());
+        return result;
+    }
+    
+    private String cacheKey(String username, String password) {
+        Mac mac = newMac();
+        mac.update(username.getBytes(StandardCharsets.UTF_8));
+        // Separator so that ("ab", "c") and ("a", "bc") never share a key
+        mac.update((byte) 0);
+        mac.update(password.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(mac.doFinal());
+    }
+    
+    private Mac newMac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HMAC implementation cannot be cloned", e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.bookstore.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reuses the authorities converted for a {@link Jwt} for as long as that instance lives. Paired with
+ * {@link CachingJwtDecoder}, which hands out the same instance for a repeated token, this skips
+ * claim-to-role mapping after the first request. Keys are held weakly and compared by identity.
+ */
+public class CachingGrantedAuthoritiesConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+    
+    private final Converter<Jwt, Collection<GrantedAuthority>> delegate;
+    private final Cache<Jwt, Collection<GrantedAuthority>> authorities;
+    
+    public CachingGrantedAuthoritiesConverter(Converter<Jwt, Collection<GrantedAuthority>> delegate, long maxSize) {
+        this.delegate = delegate;
+        this.authorities = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(maxSize)
+            .build();
+    }
+    
+    @Override
+    public Collection<GrantedAuthority> convert(Jwt jwt) {
+        return authorities.get(jwt, key -> {
+            Collection<GrantedAuthority> converted = delegate.convert(key);
+            return converted != null ? List.copyOf(converted) : List.of();
+        });
+    }
+}
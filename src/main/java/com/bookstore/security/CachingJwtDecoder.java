@@ -0,0 +1,101 @@
+package com.bookstore.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Remembers tokens that the delegate has fully verified, so a client reusing its token pays a SHA-256
+ * digest and a map lookup instead of signature verification and claim parsing.
+ *
+ * <p>Entries are keyed by the digest of the token, so the cache never holds bearer tokens, and expire
+ * {@code expiryMargin} before the token's {@code exp}. Tokens without an expiry, or about to expire,
+ * are never cached. Rejected tokens are never cached.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+    
+    private final JwtDecoder delegate;
+    private final Duration expiryMargin;
+    private final Cache<String, Jwt> verified;
+    
+    public CachingJwtDecoder(JwtDecoder delegate, long maxSize, Duration expiryMargin) {
+        this.delegate = delegate;
+        this.expiryMargin = expiryMargin;
+        this.verified = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new UntilTokenExpiry())
+            .recordStats()
+            .build();
+    }
+    
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = digest(token);
+        Jwt cached = verified.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        
+        Jwt jwt = delegate.decode(token);
+        if (cacheableFor(jwt).isPositive()) {
+            verified.put(key, jwt);
+        }
+        return jwt;
+    }
+    
+    /**
+     * Returns the token's claims if it is cached as verified, without verifying anything.
+     */
+    public Jwt peek(String token) {
+        return verified.getIfPresent(digest(token));
+    }
+    
+    public Cache<String, Jwt> getCache() {
+        return verified;
+    }
+    
+    private Duration cacheableFor(Jwt jwt) {
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null) {
+            return Duration.ZERO;
+        }
+        return Duration.between(Instant.now(), expiresAt.minus(expiryMargin));
+    }
+    
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    private final class UntilTokenExpiry implements Expiry<String, Jwt> {
+        
+        @Override
+        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            return Math.max(0, cacheableFor(jwt).toNanos());
+        }
+        
+        @Override
+        public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+        
+        @Override
+        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.bookstore.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Builds decoders that verify against a local JWK set, picking the key by {@code kid} and accepting
+ * every algorithm declared by the set's keys, so tokens from a retired key of another algorithm stay
+ * valid during a migration.
+ */
+public final class JwkSetJwtDecoders {
+    
+    private JwkSetJwtDecoders() {
+    }
+    
+    public static NimbusJwtDecoder fromJwkSet(JWKSet jwkSet) {
+        Set<JWSAlgorithm> algorithms = jwkSet.getKeys().stream()
+            .map(JwtAlgorithm::forJwk)
+            .map(JwtAlgorithm::jwsAlgorithm)
+            .collect(Collectors.toSet());
+        
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(
+            algorithms, new ImmutableJWKSet<>(jwkSet.toPublicJWKSet())));
+        // Claims are checked by NimbusJwtDecoder's validators, as with the builder-created decoders
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> { });
+        return new NimbusJwtDecoder(jwtProcessor);
+    }
+}
@@ -0,0 +1,114 @@
+package com.bookstore.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.Ed25519Signer;
+import com.nimbusds.jose.crypto.Ed25519Verifier;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import org.springframework.security.oauth2.jose.jws.JwsAlgorithm;
+
+import java.security.Key;
+import java.security.interfaces.ECKey;
+import java.security.interfaces.EdECKey;
+import java.security.interfaces.RSAKey;
+
+/**
+ * Signature algorithms supported for access tokens. RS256 is the most widely understood; ES256 and
+ * EdDSA (Ed25519) sign considerably faster with much smaller keys and signatures, at the cost of
+ * slower (ES256) or comparable (EdDSA) verification. {@code JwtAlgorithmBenchmark} compares them.
+ */
+public enum JwtAlgorithm implements JwsAlgorithm {
+    
+    RS256(JWSAlgorithm.RS256, "RSA"),
+    ES256(JWSAlgorithm.ES256, "EC"),
+    EdDSA(JWSAlgorithm.EdDSA, "Ed25519");
+    
+    private final JWSAlgorithm jwsAlgorithm;
+    private final String keyAlgorithm;
+    
+    JwtAlgorithm(JWSAlgorithm jwsAlgorithm, String keyAlgorithm) {
+        this.jwsAlgorithm = jwsAlgorithm;
+        this.keyAlgorithm = keyAlgorithm;
+    }
+    
+    @Override
+    public String getName() {
+        return jwsAlgorithm.getName();
+    }
+    
+    public JWSAlgorithm jwsAlgorithm() {
+        return jwsAlgorithm;
+    }
+    
+    /**
+     * JCA name used to read keys of this algorithm from PKCS#8 and X.509 encodings.
+     */
+    public String keyAlgorithm() {
+        return keyAlgorithm;
+    }
+    
+    public JWK generateKey(String keyId) throws JOSEException {
+        return switch (this) {
+            case RS256 -> new RSAKeyGenerator(2048)
+                .keyUse(KeyUse.SIGNATURE).algorithm(jwsAlgorithm).keyID(keyId).generate();
+            case ES256 -> new ECKeyGenerator(Curve.P_256)
+                .keyUse(KeyUse.SIGNATURE).algorithm(jwsAlgorithm).keyID(keyId).generate();
+            case EdDSA -> new OctetKeyPairGenerator(Curve.Ed25519)
+                .keyUse(KeyUse.SIGNATURE).algorithm(jwsAlgorithm).keyID(keyId).generate();
+        };
+    }
+    
+    public JWSSigner signer(JWK key) throws JOSEException {
+        return switch (this) {
+            case RS256 -> new RSASSASigner(key.toRSAKey());
+            case ES256 -> new ECDSASigner(key.toECKey());
+            case EdDSA -> new Ed25519Signer(key.toOctetKeyPair());
+        };
+    }
+    
+    public JWSVerifier verifier(JWK key) throws JOSEException {
+        return switch (this) {
+            case RS256 -> new RSASSAVerifier(key.toRSAKey());
+            case ES256 -> new ECDSAVerifier(key.toECKey());
+            case EdDSA -> new Ed25519Verifier(key.toOctetKeyPair().toPublicJWK());
+        };
+    }
+    
+    /**
+     * The algorithm a JCA key signs with. Only P-256 curves map to ES256 and only Ed25519 to EdDSA.
+     */
+    public static JwtAlgorithm forKey(Key key) {
+        if (key instanceof RSAKey) {
+            return RS256;
+        }
+        if (key instanceof ECKey ecKey && Curve.P_256.equals(Curve.forECParameterSpec(ecKey.getParams()))) {
+            return ES256;
+        }
+        if (key instanceof EdECKey edKey && "Ed25519".equalsIgnoreCase(edKey.getParams().getName())) {
+            return EdDSA;
+        }
+        throw new IllegalStateException("Unsupported JWT key type: " + key.getAlgorithm()
+            + " (expected RSA, EC P-256 or Ed25519)");
+    }
+    
+    /**
+     * The algorithm recorded on a JWK built by {@link JwtKeyLoader} or {@link #generateKey}.
+     */
+    public static JwtAlgorithm forJwk(JWK key) {
+        if (key.getAlgorithm() == null) {
+            throw new IllegalStateException("JWK " + key.getKeyID() + " does not declare an algorithm");
+        }
+        return valueOf(key.getAlgorithm().getName());
+    }
+}
@@ -0,0 +1,269 @@
+package com.bookstore.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.util.Base64URL;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.EdECPrivateKey;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.KeySpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Loads JWT keys from PEM files or Java keystores, so that every node signs and verifies with the
+ * same material instead of a key generated at startup.
+ *
+ * <p>A location is either inline PEM text, a {@code classpath:} or {@code file:} resource, or a plain
+ * file path. Locations ending in {@code .p12}, {@code .pfx} or {@code .jks} are read as keystores;
+ * anything else is read as PEM holding a PKCS#8 {@code PRIVATE KEY}, a {@code PUBLIC KEY} or a
+ * {@code CERTIFICATE}. RSA, EC P-256 and Ed25519 keys are accepted, and the resulting JWK records
+ * the matching {@link JwtAlgorithm}. When no key id is configured, the RFC 7638 thumbprint of the
+ * public key is used, so nodes sharing a key agree on its id without further coordination.
+ */
+public final class JwtKeyLoader {
+    
+    private static final Pattern PEM_BLOCK =
+        Pattern.compile("-----BEGIN ([A-Z0-9 ]+)-----([A-Za-z0-9+/=\\s]+?)-----END \\1-----");
+    
+    private static final ResourceLoader RESOURCES = new DefaultResourceLoader();
+    
+    private JwtKeyLoader() {
+    }
+    
+    /**
+     * Loads a key pair used to sign tokens. For keystores, {@code alias} may be blank when the
+     * keystore holds a single key entry. EC and Ed25519 PEM files must also contain the public key.
+     */
+    public static JWK loadSigningKey(String location, String keyId, String storePassword, String alias) {
+        try {
+            if (isKeyStore(location)) {
+                return fromKeyStore(location, keyId, storePassword, alias);
+            }
+            PemContents pem = readPem(location);
+            if (pem.privateKey() == null) {
+                throw new IllegalStateException("No PRIVATE KEY block found in JWT signing key " + describe(location));
+            }
+            PublicKey publicKey = pem.publicKey() != null ? pem.publicKey() : derivePublicKey(pem.privateKey());
+            return toJwk(publicKey, pem.privateKey(), keyId);
+        } catch (IOException | GeneralSecurityException | JOSEException | ParseException | ClassCastException e) {
+            throw new IllegalStateException("Unable to load JWT signing key from " + describe(location), e);
+        }
+    }
+    
+    /**
+     * Loads a public key that is still accepted for verification, typically the previous signing
+     * key during a rotation. Its algorithm may differ from the current signing key's.
+     */
+    public static JWK loadVerificationKey(String location, String keyId) {
+        try {
+            PemContents pem = readPem(location);
+            if (pem.publicKey() == null) {
+                throw new IllegalStateException("No PUBLIC KEY or CERTIFICATE block found in JWT verification key "
+                    + describe(location));
+            }
+            return toJwk(pem.publicKey(), null, keyId);
+        } catch (IOException | GeneralSecurityException | JOSEException | ParseException | ClassCastException e) {
+            throw new IllegalStateException("Unable to load JWT verification key from " + describe(location), e);
+        }
+    }
+    
+    /**
+     * Loads a verification key from a {@code [kid=]location} entry. Inline PEM is never split, since
+     * its base64 body may end in {@code =} padding; a key id must precede it as {@code kid=-----BEGIN}.
+     */
+    public static JWK loadVerificationKeyEntry(String entry) {
+        String trimmed = entry.trim();
+        int separator = trimmed.startsWith("-----BEGIN") ? -1 : trimmed.indexOf('=');
+        if (separator > 0 && trimmed.substring(0, separator).chars().noneMatch(Character::isWhitespace)) {
+            return loadVerificationKey(trimmed.substring(separator + 1).trim(), trimmed.substring(0, separator));
+        }
+        return loadVerificationKey(trimmed, null);
+    }
+    
+    /**
+     * Builds the JWK for a key pair, deriving the key id from the public key when none is given.
+     * {@code privateKey} may be {@code null} for verification-only keys.
+     */
+    public static JWK toJwk(PublicKey publicKey, PrivateKey privateKey, String keyId)
+            throws JOSEException, ParseException {
+        JwtAlgorithm algorithm = JwtAlgorithm.forKey(publicKey);
+        JWK jwk = switch (algorithm) {
+            case RS256 -> {
+                RSAKey.Builder builder = new RSAKey.Builder((RSAPublicKey) publicKey);
+                if (privateKey != null) {
+                    builder.privateKey((RSAPrivateKey) privateKey);
+                }
+                yield builder.keyUse(KeyUse.SIGNATURE).algorithm(algorithm.jwsAlgorithm()).keyID(keyId).build();
+            }
+            case ES256 -> {
+                ECKey.Builder builder = new ECKey.Builder(Curve.P_256, (ECPublicKey) publicKey);
+                if (privateKey != null) {
+                    builder.privateKey((ECPrivateKey) privateKey);
+                }
+                yield builder.keyUse(KeyUse.SIGNATURE).algorithm(algorithm.jwsAlgorithm()).keyID(keyId).build();
+            }
+            case EdDSA -> {
+                // Both encodings end with the raw 32-byte key
+                byte[] encoded = publicKey.getEncoded();
+                OctetKeyPair.Builder builder = new OctetKeyPair.Builder(Curve.Ed25519,
+                    Base64URL.encode(Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length)));
+                if (privateKey != null) {
+                    builder.d(Base64URL.encode(((EdECPrivateKey) privateKey).getBytes()
+                        .orElseThrow(() -> new IllegalStateException("Ed25519 private key is not extractable"))));
+                }
+                yield builder.keyUse(KeyUse.SIGNATURE).algorithm(algorithm.jwsAlgorithm()).keyID(keyId).build();
+            }
+        };
+        if (StringUtils.hasText(keyId)) {
+            return jwk;
+        }
+        Map<String, Object> json = jwk.toJSONObject();
+        json.put("kid", jwk.computeThumbprint().toString());
+        return JWK.parse(json);
+    }
+    
+    private static JWK fromKeyStore(String location, String keyId, String storePassword, String alias)
+            throws IOException, GeneralSecurityException, JOSEException, ParseException {
+        String type = location.toLowerCase(Locale.ROOT).endsWith(".jks") ? "JKS" : "PKCS12";
+        char[] password = storePassword != null ? storePassword.toCharArray() : new char[0];
+        KeyStore keyStore = KeyStore.getInstance(type);
+        try (InputStream in = resource(location).getInputStream()) {
+            keyStore.load(in, password);
+        }
+        
+        String entryAlias = StringUtils.hasText(alias) ? alias : singleKeyAlias(keyStore, location);
+        Key key = keyStore.getKey(entryAlias, password);
+        Certificate certificate = keyStore.getCertificate(entryAlias);
+        if (!(key instanceof PrivateKey privateKey) || certificate == null) {
+            throw new IllegalStateException("Keystore entry '" + entryAlias + "' in " + location
+                + " is not a private key with a certificate");
+        }
+        return toJwk(certificate.getPublicKey(), privateKey, keyId);
+    }
+    
+    private static String singleKeyAlias(KeyStore keyStore, String location) throws GeneralSecurityException {
+        String found = null;
+        for (String candidate : Collections.list(keyStore.aliases())) {
+            if (keyStore.isKeyEntry(candidate)) {
+                if (found != null) {
+                    throw new IllegalStateException("Keystore " + location
+                        + " holds several keys; configure the alias to sign with");
+                }
+                found = candidate;
+            }
+        }
+        if (found == null) {
+            throw new IllegalStateException("Keystore " + location + " holds no private key");
+        }
+        return found;
+    }
+    
+    private static PemContents readPem(String location) throws IOException, GeneralSecurityException {
+        String text = isInlinePem(location)
+            ? location
+            : resource(location).getContentAsString(StandardCharsets.US_ASCII);
+        
+        PrivateKey privateKey = null;
+        PublicKey publicKey = null;
+        Matcher matcher = PEM_BLOCK.matcher(text);
+        while (matcher.find()) {
+            byte[] der = Base64.getMimeDecoder().decode(matcher.group(2));
+            switch (matcher.group(1)) {
+                case "PRIVATE KEY" -> privateKey = (PrivateKey) decode(new PKCS8EncodedKeySpec(der), true);
+                case "PUBLIC KEY" -> publicKey = (PublicKey) decode(new X509EncodedKeySpec(der), false);
+                case "CERTIFICATE" -> publicKey = CertificateFactory.getInstance("X.509")
+                    .generateCertificate(new ByteArrayInputStream(der))
+                    .getPublicKey();
+                case "RSA PRIVATE KEY", "EC PRIVATE KEY" -> throw new IllegalStateException(
+                    "Traditional OpenSSL keys are not supported; convert with 'openssl pkcs8 -topk8 -nocrypt'");
+                default -> {
+                    // Ignore unrelated blocks such as EC parameters or chain certificates
+                }
+            }
+        }
+        return new PemContents(privateKey, publicKey);
+    }
+    
+    private static Key decode(KeySpec spec, boolean isPrivate) throws GeneralSecurityException {
+        // PKCS#8 and X.509 encodings name their algorithm by OID; try each supported family
+        for (JwtAlgorithm algorithm : JwtAlgorithm.values()) {
+            try {
+                KeyFactory keyFactory = KeyFactory.getInstance(algorithm.keyAlgorithm());
+                return isPrivate ? keyFactory.generatePrivate(spec) : keyFactory.generatePublic(spec);
+            } catch (InvalidKeySpecException e) {
+                // Not this family
+            }
+        }
+        throw new InvalidKeySpecException("Key is neither RSA, EC nor Ed25519");
+    }
+    
+    private static PublicKey derivePublicKey(PrivateKey privateKey) throws GeneralSecurityException {
+        if (!(privateKey instanceof RSAPrivateCrtKey crtKey)) {
+            throw new IllegalStateException("The public key cannot be derived from this " + privateKey.getAlgorithm()
+                + " private key; add a PUBLIC KEY block");
+        }
+        return KeyFactory.getInstance("RSA")
+            .generatePublic(new RSAPublicKeySpec(crtKey.getModulus(), crtKey.getPublicExponent()));
+    }
+    
+    private static boolean isKeyStore(String location) {
+        String lower = location.toLowerCase(Locale.ROOT);
+        return !isInlinePem(location) && (lower.endsWith(".p12") || lower.endsWith(".pfx") || lower.endsWith(".jks"));
+    }
+    
+    private static boolean isInlinePem(String location) {
+        return location.stripLeading().startsWith("-----BEGIN");
+    }
+    
+    private static Resource resource(String location) {
+        if (location.startsWith(ResourceLoader.CLASSPATH_URL_PREFIX) || location.startsWith("file:")) {
+            return RESOURCES.getResource(location);
+        }
+        return new FileSystemResource(location);
+    }
+    
+    private static String describe(String location) {
+        // Never echo inline key material into logs or exception messages
+        return isInlinePem(location) ? "inline PEM" : location;
+    }
+    
+    private record PemContents(PrivateKey privateKey, PublicKey publicKey) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.bookstore.security;
+
+import com.bookstore.service.TokenRevocationService;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Rejects tokens whose jti has been revoked. It sits outside {@link CachingJwtDecoder}, so a
+ * revocation also applies to tokens that are already cached as verified.
+ */
+public class RevocationCheckingJwtDecoder implements JwtDecoder {
+    
+    private final CachingJwtDecoder delegate;
+    private final TokenRevocationService tokenRevocationService;
+    
+    public RevocationCheckingJwtDecoder(CachingJwtDecoder delegate, TokenRevocationService tokenRevocationService) {
+        this.delegate = delegate;
+        this.tokenRevocationService = tokenRevocationService;
+    }
+    
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        Jwt jwt = delegate.decode(token);
+        if (tokenRevocationService.isRevoked(jwt.getId())) {
+            throw new BadJwtException("Token has been revoked");
+        }
+        return jwt;
+    }
+    
+    /**
+     * Returns the token's claims if it was verified before and has not been revoked since, or {@code null}.
+     */
+    public Jwt peek(String token) {
+        Jwt jwt = delegate.peek(token);
+        return jwt != null && !tokenRevocationService.isRevoked(jwt.getId()) ? jwt : null;
+    }
+}
@@ -1,22 +1,32 @@
 package com.bookstore.security;
 
+import com.bookstore.ratelimit.VerifiedPrincipalLookup;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationConverter;
 import org.springframework.util.StringUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.PostConstruct;
 
+import java.time.Duration;
+
 import static org.springframework.security.config.Customizer.withDefaults;
 
 @Configuration
@@ -36,6 +46,12 @@ public class SecurityConfig {
 
     @Value("${app.security.user.password}")
     private String userPassword;
+    
+    @Value("${app.security.auth-cache.ttl:PT5M}")
+    private Duration authCacheTtl;
+    
+    @Value("${app.security.auth-cache.max-size:10000}")
+    private long authCacheMaxSize;
 
     @PostConstruct
     void validateCredentialProperties() {
@@ -46,7 +62,9 @@ public class SecurityConfig {
     }
     
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   CachingAuthenticationProvider cachingAuthenticationProvider)
+            throws Exception {
         http
             // CSRF disabled for stateless REST API
             .csrf(csrf -> csrf.disable())
@@ -56,16 +74,49 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 // Public endpoints for monitoring and documentation
                 .requestMatchers("/actuator/health/**", "/actuator/info").permitAll()
+                // Recordings, slow query bind parameters and traces expose request data, so they are for
+                // admins only; metrics and prometheus stay open to any authenticated scraper
+                .requestMatchers("/actuator/jfr/**", "/actuator/slow-queries/**", "/actuator/slow-requests/**",
+                    "/actuator/traces/**").hasRole("ADMIN")
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                 // All API endpoints require authentication
                 .requestMatchers("/api/**").authenticated()
                 .anyRequest().authenticated())
             // Basic auth chosen for simplicity over JWT
-            .httpBasic(withDefaults());
+            .httpBasic(withDefaults())
+            // Sole provider, so a failed attempt is hashed once and not retried by a parent manager
+            .authenticationManager(new ProviderManager(cachingAuthenticationProvider));
         
         return http.build();
     }
     
+    @Bean
+    public CachingAuthenticationProvider cachingAuthenticationProvider(UserDetailsService userDetailsService,
+                                                                       PasswordEncoder passwordEncoder,
+                                                                       MeterRegistry meterRegistry) {
+        // Basic auth sends the password on every request; without the cache each one pays a BCrypt hash
+        DaoAuthenticationProvider bcrypt = new DaoAuthenticationProvider(passwordEncoder);
+        bcrypt.setUserDetailsService(userDetailsService);
+        CachingAuthenticationProvider provider = new CachingAuthenticationProvider(
+            bcrypt, userDetailsService, authCacheTtl, authCacheMaxSize);
+        CaffeineCacheMetrics.monitor(meterRegistry, provider.getCache(), "auth.verifications");
+        return provider;
+    }
+    
+    @Bean
+    public VerifiedPrincipalLookup verifiedPrincipalLookup(CachingAuthenticationProvider cachingAuthenticationProvider) {
+        // Callers whose password is not cached yet are limited by IP until their first success
+        BasicAuthenticationConverter basicAuthenticationConverter = new BasicAuthenticationConverter();
+        return request -> {
+            try {
+                Authentication credentials = basicAuthenticationConverter.convert(request);
+                return credentials != null ? cachingAuthenticationProvider.peek(credentials) : null;
+            } catch (AuthenticationException e) {
+                return null;
+            }
+        };
+    }
+    
     @Bean
     public UserDetailsService userDetailsService(PasswordEncoder passwordEncoder) {
         // In-memory users for demo - production would use database or LDAP
@@ -0,0 +1,68 @@
+package com.bookstore.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Signs tokens with a single JWK using its declared {@link JwtAlgorithm}. Unlike
+ * {@code NimbusJwtEncoder}, which only selects RSA, EC and HMAC keys, this also signs with Ed25519,
+ * and it builds its signer once rather than selecting a key per token.
+ */
+public class SigningKeyJwtEncoder implements JwtEncoder {
+    
+    private final JwtAlgorithm algorithm;
+    private final JWSHeader header;
+    private final JWSSigner signer;
+    
+    public SigningKeyJwtEncoder(JWK signingKey) {
+        if (!signingKey.isPrivate()) {
+            throw new IllegalArgumentException("JWK " + signingKey.getKeyID() + " has no private key to sign with");
+        }
+        this.algorithm = JwtAlgorithm.forJwk(signingKey);
+        this.header = new JWSHeader.Builder(algorithm.jwsAlgorithm())
+            .keyID(signingKey.getKeyID())
+            .build();
+        try {
+            this.signer = algorithm.signer(signingKey);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Unable to create " + algorithm + " signer", e);
+        }
+    }
+    
+    @Override
+    public Jwt encode(JwtEncoderParameters parameters) throws JwtEncodingException {
+        JwsHeader requested = parameters.getJwsHeader();
+        if (requested != null && !algorithm.getName().equals(requested.getAlgorithm().getName())) {
+            throw new JwtEncodingException("Requested algorithm " + requested.getAlgorithm().getName()
+                + " does not match signing key algorithm " + algorithm.getName());
+        }
+        
+        JwtClaimsSet claims = parameters.getClaims();
+        JWTClaimsSet.Builder claimsSet = new JWTClaimsSet.Builder();
+        claims.getClaims().forEach((name, value) ->
+            claimsSet.claim(name, value instanceof Instant instant ? Date.from(instant) : value));
+        
+        SignedJWT signedJwt = new SignedJWT(header, claimsSet.build());
+        try {
+            signedJwt.sign(signer);
+        } catch (JOSEException e) {
+            throw new JwtEncodingException("Unable to sign JWT with " + algorithm.getName(), e);
+        }
+        
+        return new Jwt(signedJwt.serialize(), claims.getIssuedAt(), claims.getExpiresAt(),
+            header.toJSONObject(), claims.getClaims());
+    }
+}
@@ -2,7 +2,18 @@ package com.bookstore.service;
 
 import com.bookstore.dto.LoginRequest;
 import com.bookstore.dto.LoginResponse;
+import com.bookstore.dto.RefreshTokenRequest;
+import org.springframework.security.oauth2.jwt.Jwt;
 
 public interface AuthService {
     LoginResponse login(LoginRequest request);
-}
\ No newline at end of file
+    
+    LoginResponse refresh(RefreshTokenRequest request);
+    
+    /**
+     * Ends the session of the refresh token and revokes the access token, either of which may be null
+     */
+    void logout(RefreshTokenRequest request, Jwt accessToken);
+    
+    int purgeExpiredRefreshTokens();
+}
@@ -0,0 +1,23 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.IdempotentResponse;
+
+import java.util.Optional;
+
+public interface IdempotencyService {
+    
+    /**
+     * Find the stored response for a scoped idempotency key, if it has not expired
+     */
+    Optional<IdempotentResponse> find(String keyHash);
+    
+    /**
+     * Store the response of the first execution so duplicates can be replayed
+     */
+    void store(String keyHash, IdempotentResponse response);
+    
+    /**
+     * Remove expired keys from the durable store
+     */
+    int purgeExpired();
+}
@@ -1,10 +1,15 @@
 package com.bookstore.service;
 
+import com.bookstore.dto.CartReservationRequest;
+import com.bookstore.dto.CartReservationResponse;
 import com.bookstore.dto.InventoryAdjustmentDto;
-import com.bookstore.dto.BookDto;
+import com.bookstore.dto.InventoryItemDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface InventoryService {
     
@@ -13,6 +18,11 @@ public interface InventoryService {
      */
     void reserveInventory(UUID bookId, Integer quantity);
     
+    /**
+     * Reserve inventory for several books atomically: either every line is reserved or none is
+     */
+    CartReservationResponse reserveCart(CartReservationRequest request);
+    
     /**
      * Release reserved inventory
      */
@@ -24,14 +34,19 @@ public interface InventoryService {
     void adjustInventory(UUID bookId, InventoryAdjustmentDto adjustment);
     
     /**
-     * Get books that need restocking
+     * Get a page of books that need restocking
+     */
+    Page<InventoryItemDto> getBooksNeedingRestock(Pageable pageable);
+    
+    /**
+     * Get a page of low stock books
      */
-    List<BookDto> getBooksNeedingRestock();
+    Page<InventoryItemDto> getLowStockBooks(int threshold, Pageable pageable);
     
     /**
-     * Get low stock books
+     * Stream every book that needs restocking to the consumer without materialising the full result
      */
-    List<BookDto> getLowStockBooks(int threshold);
+    void streamBooksNeedingRestock(Consumer<InventoryItemDto> consumer);
     
     /**
      * Update reorder levels for books
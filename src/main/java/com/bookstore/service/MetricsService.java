@@ -1,74 +1,64 @@
 package com.bookstore.service;
 
-import com.bookstore.dto.BookDto;
-import com.bookstore.service.InventoryService;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.InventorySnapshot;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Tags;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
 @Service
 @Slf4j
 public class MetricsService {
     
     private final MeterRegistry meterRegistry;
-    private final BookService bookService;
-    private final InventoryService inventoryService;
+    private final BookRepository bookRepository;
+    
+    // Gauge values are refreshed on a schedule so that scrapes never touch the database
+    private final AtomicLong totalBooks = new AtomicLong();
+    private final AtomicLong restockNeeded = new AtomicLong();
+    private final AtomicLong lastRefreshMillis = new AtomicLong();
     
-    private final Counter bookCreatedCounter;
-    private final Counter bookViewedCounter;
-    private final Counter inventoryReservedCounter;
+    // Counters are registered once per tag value and reused, so recording is a lookup plus an increment
+    private final TaggedCounters booksCreated;
+    private final TaggedCounters booksViewed;
+    private final TaggedCounters inventoryReserved;
     
-    public MetricsService(MeterRegistry meterRegistry, BookService bookService, InventoryService inventoryService) {
+    public MetricsService(MeterRegistry meterRegistry, 
+                          BookRepository bookRepository,
+                          @Value("${app.metrics.max-tag-values:100}") int maxTagValues) {
         this.meterRegistry = meterRegistry;
-        this.bookService = bookService;
-        this.inventoryService = inventoryService;
+        this.bookRepository = bookRepository;
         
-        // Initialize counters
-        this.bookCreatedCounter = Counter.builder("books.created")
-            .description("Number of books created")
-            .register(meterRegistry);
-        
-        this.bookViewedCounter = Counter.builder("books.viewed")
-            .description("Number of book views")
-            .register(meterRegistry);
-            
-        this.inventoryReservedCounter = Counter.builder("inventory.reserved")
-            .description("Number of inventory reservations")
-            .register(meterRegistry);
+        this.booksCreated = new TaggedCounters(meterRegistry, "books.created", 
+            "Number of books created", "genre", maxTagValues);
+        this.booksViewed = new TaggedCounters(meterRegistry, "books.viewed", 
+            "Number of book views", "genre", maxTagValues);
+        this.inventoryReserved = new TaggedCounters(meterRegistry, "inventory.reserved", 
+            "Number of inventory reservations", "quantity_range", maxTagValues);
         
         // Register custom gauges
         registerInventoryGauges();
     }
     
     public void recordBookCreated(String genre) {
-        Counter.builder("books.created")
-            .tag("genre", genre)
-            .register(meterRegistry)
-            .increment();
-        log.debug("Recorded book creation metric for genre: {}", genre);
+        booksCreated.increment(genre);
     }
     
     public void recordBookViewed(String genre) {
-        // Use low-cardinality tags to avoid metric explosion
-        Counter.builder("books.viewed")
-            .tag("genre", genre != null ? genre : "unknown")
-            .register(meterRegistry)
-            .increment();
-        log.debug("Recorded book view metric for genre: {}", genre);
+        booksViewed.increment(genre);
     }
     
     public void recordInventoryReserved(String quantityRange) {
         // Use quantity ranges instead of exact values to reduce cardinality
-        Counter.builder("inventory.reserved")
-            .tag("quantity_range", quantityRange != null ? quantityRange : "unknown")
-            .register(meterRegistry)
-            .increment();
-        log.debug("Recorded inventory reservation metric for quantity range: {}", quantityRange);
+        inventoryReserved.increment(quantityRange);
     }
     
     public String getQuantityRange(int quantity) {
@@ -80,34 +70,89 @@ public class MetricsService {
     }
     
     private void registerInventoryGauges() {
-        // Total books gauge - simplified for compilation
-        Gauge.builder("inventory.total.books", this, s -> s.getTotalBooksCount())
+        Gauge.builder("inventory.total.books", totalBooks, AtomicLong::get)
             .description("Total number of books in inventory")  
             .register(meterRegistry);
             
-        // Books needing restock gauge
-        Gauge.builder("inventory.restock.needed", this, s -> s.getRestockNeededCount())
+        Gauge.builder("inventory.restock.needed", restockNeeded, AtomicLong::get)
             .description("Number of books needing restock")
             .register(meterRegistry);
+        
+        Gauge.builder("inventory.gauges.staleness", this, MetricsService::getStalenessSeconds)
+            .description("Seconds since the inventory gauges were last refreshed")
+            .baseUnit("seconds")
+            .register(meterRegistry);
     }
     
-    private double getTotalBooksCount() {
+    @Scheduled(fixedDelayString = "${app.metrics.inventory-refresh-interval:PT30S}")
+    public void refreshInventoryGauges() {
         try {
-            return bookService.searchBooks(null, null, null, 
-                org.springframework.data.domain.PageRequest.of(0, 1))
-                .getTotalElements();
+            InventorySnapshot snapshot = bookRepository.getInventorySnapshot();
+            totalBooks.set(snapshot.getTotalBooks());
+            restockNeeded.set(snapshot.getRestockNeeded());
+            lastRefreshMillis.set(System.currentTimeMillis());
         } catch (Exception e) {
-            log.warn("Failed to get total books count for metrics", e);
-            return 0;
+            // Keep the previous values; the staleness gauge shows how old they are
+            log.warn("Failed to refresh inventory gauges", e);
         }
     }
     
-    private double getRestockNeededCount() {
-        try {
-            return inventoryService.getBooksNeedingRestock().size();
-        } catch (Exception e) {
-            log.warn("Failed to get restock count for metrics", e);
-            return 0;
+    private double getStalenessSeconds() {
+        long refreshedAt = lastRefreshMillis.get();
+        return refreshedAt == 0 ? Double.NaN : (System.currentTimeMillis() - refreshedAt) / 1000.0;
+    }
+    
+    /**
+     * Counters for one meter name keyed by a single tag. Genre names come from user data, so once the
+     * cap is reached any new value is counted under "other" instead of registering another series.
+     */
+    static final class TaggedCounters {
+        
+        private static final String UNKNOWN = "unknown";
+        private static final String OVERFLOW = "other";
+        
+        private final MeterRegistry meterRegistry;
+        private final String name;
+        private final String description;
+        private final String tagKey;
+        private final int maxValues;
+        private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+        private final Counter unknown;
+        private final Counter overflow;
+        
+        TaggedCounters(MeterRegistry meterRegistry, String name, String description, String tagKey, int maxValues) {
+            this.meterRegistry = meterRegistry;
+            this.name = name;
+            this.description = description;
+            this.tagKey = tagKey;
+            this.maxValues = maxValues;
+            this.unknown = register(UNKNOWN);
+            this.overflow = register(OVERFLOW);
+        }
+        
+        void increment(String tagValue) {
+            counter(tagValue).increment();
+        }
+        
+        Counter counter(String tagValue) {
+            if (tagValue == null) {
+                return unknown;
+            }
+            Counter counter = counters.get(tagValue);
+            if (counter != null) {
+                return counter;
+            }
+            if (counters.size() >= maxValues) {
+                return overflow;
+            }
+            return counters.computeIfAbsent(tagValue, this::register);
+        }
+        
+        private Counter register(String tagValue) {
+            return Counter.builder(name)
+                .description(description)
+                .tag(tagKey, tagValue)
+                .register(meterRegistry);
         }
     }
-}
\ No newline at end of file
+}
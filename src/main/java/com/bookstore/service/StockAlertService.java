@@ -0,0 +1,11 @@
+package com.bookstore.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface StockAlertService {
+    
+    /**
+     * Subscribe to restock alerts, plus low-stock alerts for the given threshold when one is supplied
+     */
+    SseEmitter subscribe(Integer threshold);
+}
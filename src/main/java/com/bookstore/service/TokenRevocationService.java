@@ -0,0 +1,20 @@
+package com.bookstore.service;
+
+import java.time.Instant;
+
+public interface TokenRevocationService {
+    
+    /**
+     * Rejects the access token with this jti from now on, on every instance, until it expires
+     */
+    void revoke(String jti, Instant expiresAt);
+    
+    boolean isRevoked(String jti);
+    
+    /**
+     * Picks up revocations made by other instances
+     */
+    void syncRevocations();
+    
+    int purgeExpired();
+}
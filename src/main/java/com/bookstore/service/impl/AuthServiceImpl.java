@@ -1,24 +1,43 @@
 package com.bookstore.service.impl;
 
+import com.bookstore.domain.RefreshToken;
 import com.bookstore.dto.LoginRequest;
 import com.bookstore.dto.LoginResponse;
+import com.bookstore.dto.RefreshTokenRequest;
+import com.bookstore.repository.RefreshTokenRepository;
 import com.bookstore.service.AuthService;
+import com.bookstore.service.TokenRevocationService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.UUID;
 
 @Service
+@Timed(value = "bookstore.service", description = "Time spent in service methods")
 @RequiredArgsConstructor
 @Slf4j
 @Profile("jwt")
@@ -27,8 +46,14 @@ public class AuthServiceImpl implements AuthService {
     private final UserDetailsService userDetailsService;
     private final PasswordEncoder passwordEncoder;
     private final JwtEncoder jwtEncoder;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenRevocationService tokenRevocationService;
+    
+    @Value("${app.security.refresh-token.ttl:P14D}")
+    private Duration refreshTokenTtl;
     
     private static final long JWT_EXPIRATION_SECONDS = 3600; // 1 hour
+    private static final SecureRandom RANDOM = new SecureRandom();
     
     @Override
     public LoginResponse login(LoginRequest request) {
@@ -38,7 +63,69 @@ public class AuthServiceImpl implements AuthService {
             throw new BadCredentialsException("Invalid credentials");
         }
         
+        log.info("Generated JWT token for user: {}", request.username());
+        
+        return issueTokens(user, UUID.randomUUID(), Instant.now());
+    }
+    
+    @Override
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public LoginResponse refresh(RefreshTokenRequest request) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(request.refreshToken()))
+            .orElseThrow(() -> new BadCredentialsException("Unknown refresh token"));
         Instant now = Instant.now();
+        
+        if (current.getRevokedAt() != null || refreshTokenRepository.markRevoked(current.getId(), now) == 0) {
+            // A used token came back, so it was copied; nothing descended from it can be trusted
+            int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            log.warn("Refresh token reuse for user {}; revoked {} tokens of its family",
+                current.getUsername(), revoked);
+            throw new BadCredentialsException("Refresh token reuse detected");
+        }
+        if (!current.getExpiresAt().isAfter(now)) {
+            throw new BadCredentialsException("Refresh token expired");
+        }
+        
+        // Reload so role changes and disabled accounts take effect without a password check
+        UserDetails user;
+        try {
+            user = userDetailsService.loadUserByUsername(current.getUsername());
+        } catch (UsernameNotFoundException e) {
+            throw new BadCredentialsException("Invalid credentials");
+        }
+        if (!user.isEnabled() || !user.isAccountNonLocked() || !user.isAccountNonExpired()) {
+            throw new BadCredentialsException("Account is not active");
+        }
+        
+        log.debug("Refreshed JWT token for user: {}", user.getUsername());
+        
+        return issueTokens(user, current.getFamilyId(), now);
+    }
+    
+    @Override
+    @Transactional
+    public void logout(RefreshTokenRequest request, Jwt accessToken) {
+        Instant now = Instant.now();
+        if (request != null && request.refreshToken() != null) {
+            refreshTokenRepository.findByTokenHash(hash(request.refreshToken()))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), now));
+        }
+        if (accessToken != null) {
+            tokenRevocationService.revoke(accessToken.getId(), accessToken.getExpiresAt());
+        }
+    }
+    
+    @Override
+    @Scheduled(fixedDelayString = "${app.security.refresh-token.cleanup-interval:PT1H}")
+    public int purgeExpiredRefreshTokens() {
+        int removed = refreshTokenRepository.deleteExpired(Instant.now());
+        if (removed > 0) {
+            log.debug("Purged {} expired refresh tokens", removed);
+        }
+        return removed;
+    }
+    
+    private LoginResponse issueTokens(UserDetails user, UUID familyId, Instant now) {
         Instant expiry = now.plusSeconds(JWT_EXPIRATION_SECONDS);
         
         List<String> roles = user.getAuthorities().stream()
@@ -46,6 +133,7 @@ public class AuthServiceImpl implements AuthService {
             .toList();
         
         JwtClaimsSet claims = JwtClaimsSet.builder()
+            .id(UUID.randomUUID().toString())
             .issuer("bookstore-api")
             .issuedAt(now)
             .expiresAt(expiry)
@@ -55,15 +143,35 @@ public class AuthServiceImpl implements AuthService {
         
         String token = jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
         
-        log.info("Generated JWT token for user: {}", request.username());
+        byte[] secret = new byte[32];
+        RANDOM.nextBytes(secret);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        Instant refreshExpiry = now.plus(refreshTokenTtl);
+        refreshTokenRepository.save(RefreshToken.builder()
+            .tokenHash(hash(refreshToken))
+            .familyId(familyId)
+            .username(user.getUsername())
+            .expiresAt(refreshExpiry)
+            .build());
         
         return new LoginResponse(
             token,
             "Bearer",
             JWT_EXPIRATION_SECONDS,
             expiry,
+            refreshToken,
+            refreshExpiry,
             roles,
             user.getUsername()
         );
     }
-}
\ No newline at end of file
+    
+    private static String hash(String refreshToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(refreshToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
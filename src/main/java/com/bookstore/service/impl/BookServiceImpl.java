@@ -10,11 +10,15 @@ import com.bookstore.exception.DuplicateResourceException;
 import com.bookstore.exception.IdMismatchException;
 import com.bookstore.exception.ResourceNotFoundException;
 import com.bookstore.mapper.BookMapper;
+import com.bookstore.observability.jfr.BookDetailEvent;
+import com.bookstore.observability.jfr.BookSearchEvent;
 import com.bookstore.repository.AuthorRepository;
 import com.bookstore.repository.BookRepository;
 import com.bookstore.repository.GenreRepository;
 import com.bookstore.repository.specification.BookSpecification;
 import com.bookstore.service.BookService;
+import com.bookstore.service.MetricsService;
+import com.bookstore.util.OptimisticRetry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -23,23 +27,33 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
 @Service
+@Timed(value = "bookstore.service", description = "Time spent in service methods")
 @RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
 public class BookServiceImpl implements BookService {
     
+    // Separate logger so the sampling turbo filter in logback-spring.xml only applies to view events
+    private static final Logger viewLog = LoggerFactory.getLogger(BookServiceImpl.class.getName() + ".view");
+    
     private final BookRepository bookRepository;
     private final AuthorRepository authorRepository;
     private final GenreRepository genreRepository;
     private final BookMapper bookMapper;
+    private final MetricsService metricsService;
     
     @Override
     @Transactional
@@ -61,6 +75,7 @@ public class BookServiceImpl implements BookService {
         
         Book savedBook = bookRepository.save(book);
         log.debug("Created book with id: {}", savedBook.getId());
+        metricsService.recordBookCreated(primaryGenre(savedBook));
         
         return bookMapper.toDto(savedBook);
     }
@@ -68,17 +83,28 @@ public class BookServiceImpl implements BookService {
     @Override
     @Transactional
     public BookDto getBook(UUID id) {
-        Book book = bookRepository.findByIdWithRelations(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Book", id));
-        
-        // Track view count for analytics
-        bookRepository.incrementViewCount(id);
-        
-        return bookMapper.toDto(book);
+        BookDetailEvent event = BookDetailEvent.start();
+        boolean found = false;
+        try {
+            Book book = bookRepository.findByIdWithRelations(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Book", id));
+            found = true;
+            
+            // Track view count for analytics
+            bookRepository.incrementViewCount(id);
+            String genre = primaryGenre(book);
+            metricsService.recordBookViewed(genre);
+            viewLog.debug("Book viewed {} {}", kv("bookId", id), kv("genre", genre));
+            
+            return bookMapper.toDto(book);
+        } finally {
+            event.finish(id, found);
+        }
     }
     
     @Override
     @Transactional
+    @OptimisticRetry
     public BookDto updateBook(UUID id, BookDto bookDto) {
         if (!id.equals(bookDto.id())) {
             throw new IdMismatchException(id, bookDto.id());
@@ -109,6 +135,7 @@ public class BookServiceImpl implements BookService {
     
     @Override
     @Transactional
+    @OptimisticRetry
     public void deleteBook(UUID id) {
         if (bookRepository.existsById(id)) {
             bookRepository.deleteById(id);
@@ -119,11 +146,15 @@ public class BookServiceImpl implements BookService {
     @Override
     @Timed(value = "book.search", description = "Time spent searching books")
     public Page<BookDto> searchBooks(String title, String author, String genre, Pageable pageable) {
+        BookSearchEvent event = BookSearchEvent.start();
         Specification<Book> spec = BookSpecification.withFilters(title, author, genre);
         
         Page<Book> books = bookRepository.findAll(spec, pageable);
         
-        return books.map(bookMapper::toDto);
+        Page<BookDto> result = books.map(bookMapper::toDto);
+        event.finish(title, author, genre, books.getNumber(), books.getSize(), 
+            books.getNumberOfElements(), books.getTotalElements());
+        return result;
     }
     
     private Set<Author> processAuthors(Set<AuthorDto> authorDtos) {
@@ -209,4 +240,16 @@ public class BookServiceImpl implements BookService {
             });
         }
     }
-}
\ No newline at end of file
+    
+    // A single, stable genre per book keeps the metric tag low-cardinality
+    private static String primaryGenre(Book book) {
+        if (book.getGenres() == null) {
+            return null;
+        }
+        return book.getGenres().stream()
+            .map(Genre::getName)
+            .filter(Objects::nonNull)
+            .min(Comparator.naturalOrder())
+            .orElse(null);
+    }
+}
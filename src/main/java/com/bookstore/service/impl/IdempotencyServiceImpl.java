@@ -0,0 +1,96 @@
+package com.bookstore.service.impl;
+
+import com.bookstore.domain.IdempotencyRecord;
+import com.bookstore.dto.IdempotentResponse;
+import com.bookstore.repository.IdempotencyRecordRepository;
+import com.bookstore.service.IdempotencyService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+@Service
+@Slf4j
+public class IdempotencyServiceImpl implements IdempotencyService {
+    
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final Duration ttl;
+    // Hot duplicates are served from memory; the table covers restarts and other instances
+    private final Cache<String, IdempotentResponse> cache;
+    
+    public IdempotencyServiceImpl(
+        IdempotencyRecordRepository idempotencyRecordRepository,
+        @Value("${app.idempotency.ttl:PT24H}") Duration ttl,
+        @Value("${app.idempotency.cache.max-size:10000}") long maxSize,
+        @Value("${app.idempotency.cache.ttl:PT10M}") Duration cacheTtl
+    ) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+            .expireAfterWrite(cacheTtl.compareTo(ttl) < 0 ? cacheTtl : ttl)
+            .maximumSize(maxSize)
+            .build();
+    }
+    
+    @Override
+    public Optional<IdempotentResponse> find(String keyHash) {
+        IdempotentResponse cached = cache.getIfPresent(keyHash);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        
+        Optional<IdempotentResponse> stored = idempotencyRecordRepository
+            .findByKeyHashAndExpiresAtAfter(keyHash, Instant.now())
+            .map(IdempotencyServiceImpl::toResponse);
+        stored.ifPresent(response -> cache.put(keyHash, response));
+        return stored;
+    }
+    
+    @Override
+    public void store(String keyHash, IdempotentResponse response) {
+        cache.put(keyHash, response);
+        
+        IdempotencyRecord record = IdempotencyRecord.builder()
+            .keyHash(keyHash)
+            .requestFingerprint(response.requestFingerprint())
+            .responseStatus(response.status())
+            .contentType(response.contentType())
+            .location(response.location())
+            .responseBody(response.body())
+            .expiresAt(Instant.now().plus(ttl))
+            .build();
+        try {
+            idempotencyRecordRepository.save(record);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance stored the same key first; its response is equivalent
+            log.debug("Idempotency key {} already stored", keyHash);
+        }
+    }
+    
+    @Override
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval:PT1H}")
+    public int purgeExpired() {
+        int removed = idempotencyRecordRepository.deleteExpired(Instant.now());
+        if (removed > 0) {
+            log.info("Purged {} expired idempotency keys", removed);
+        }
+        return removed;
+    }
+    
+    private static IdempotentResponse toResponse(IdempotencyRecord record) {
+        return new IdempotentResponse(
+            record.getRequestFingerprint(),
+            record.getResponseStatus(),
+            record.getContentType(),
+            record.getLocation(),
+            record.getResponseBody()
+        );
+    }
+}
@@ -1,101 +1,201 @@
 package com.bookstore.service.impl;
 
 import com.bookstore.domain.Book;
-import com.bookstore.dto.BookDto;
+import com.bookstore.dto.CartReservationRequest;
+import com.bookstore.dto.CartReservationResponse;
+import com.bookstore.dto.CartReservationResponse.LineStatus;
 import com.bookstore.dto.InventoryAdjustmentDto;
+import com.bookstore.dto.InventoryItemDto;
+import com.bookstore.event.StockLevelChangedEvent;
+import com.bookstore.exception.InsufficientCartInventoryException;
 import com.bookstore.exception.InsufficientInventoryException;
 import com.bookstore.exception.InvalidInventoryAdjustmentException;
+import com.bookstore.exception.InvalidCartQuantityException;
 import com.bookstore.exception.ResourceNotFoundException;
-import com.bookstore.mapper.BookMapper;
+import com.bookstore.observability.jfr.InventoryOperationEvent;
 import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.StockLevel;
 import com.bookstore.service.InventoryService;
+import com.bookstore.service.MetricsService;
+import com.bookstore.util.OptimisticRetry;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
 
 @Service
+@Timed(value = "bookstore.service", description = "Time spent in service methods")
 @RequiredArgsConstructor
 @Slf4j
 public class InventoryServiceImpl implements InventoryService {
     
     private final BookRepository bookRepository;
-    private final BookMapper bookMapper;
+    private final ReservationPipeline reservationPipeline;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MetricsService metricsService;
     
     @Override
-    @Transactional
     public void reserveInventory(UUID bookId, Integer quantity) {
-        Book book = bookRepository.findById(bookId)
-            .orElseThrow(() -> new ResourceNotFoundException("Book", bookId));
-            
-        if (book.getAvailableQuantity() < quantity) {
-            throw new InsufficientInventoryException(bookId, quantity, book.getAvailableQuantity());
+        InventoryOperationEvent event = InventoryOperationEvent.start();
+        boolean succeeded = false;
+        try {
+            // Concurrent reservations for the same book are coalesced into one locked update per micro-batch
+            reservationPipeline.reserve(bookId, quantity);
+            succeeded = true;
+        } finally {
+            event.finish("reserve", bookId, -quantity, succeeded);
         }
+        metricsService.recordInventoryReserved(metricsService.getQuantityRange(quantity));
         
-        book.setReservedQuantity(book.getReservedQuantity() + quantity);
-        bookRepository.save(book);
+        log.info("Inventory reserved {} {}", kv("bookId", bookId), kv("quantity", quantity));
+    }
+    
+    @Override
+    @Transactional
+    @OptimisticRetry
+    public CartReservationResponse reserveCart(CartReservationRequest request) {
+        // Merge repeated books so each row is locked and updated exactly once; summed as long so
+        // repeated lines cannot wrap around to a negative total
+        Map<UUID, Long> merged = new LinkedHashMap<>();
+        request.lines().forEach(line -> merged.merge(line.bookId(), (long) line.quantity(), Long::sum));
+        Map<UUID, Integer> requested = new LinkedHashMap<>();
+        merged.forEach((bookId, quantity) -> {
+            if (quantity > CartReservationRequest.MAX_QUANTITY) {
+                throw new InvalidCartQuantityException(bookId, quantity, CartReservationRequest.MAX_QUANTITY);
+            }
+            requested.put(bookId, quantity.intValue());
+        });
+        
+        Map<UUID, StockLevel> levels = bookRepository.lockStockLevels(requested.keySet())
+            .stream()
+            .collect(Collectors.toMap(StockLevel::getId, Function.identity()));
+        
+        List<LineStatus> lines = requested.entrySet().stream()
+            .map(entry -> {
+                StockLevel level = levels.get(entry.getKey());
+                if (level == null) {
+                    throw new ResourceNotFoundException("Book", entry.getKey());
+                }
+                return LineStatus.of(entry.getKey(), entry.getValue(), level.getAvailable());
+            })
+            .toList();
+        
+        if (lines.stream().anyMatch(line -> line.shortfall() > 0)) {
+            throw new InsufficientCartInventoryException(lines);
+        }
+        
+        Instant now = Instant.now();
+        for (LineStatus line : lines) {
+            // Guarded update: the rows are already locked, so this only fails if the guard disagrees with the lock read
+            if (bookRepository.reserveIfAvailable(line.bookId(), line.requestedQuantity(), now) == 0) {
+                throw new InsufficientInventoryException(
+                    line.bookId(), line.requestedQuantity(), line.availableQuantity());
+            }
+            eventPublisher.publishEvent(new StockLevelChangedEvent(line.bookId(), line.availableQuantity(),
+                line.availableQuantity() - line.requestedQuantity(), levels.get(line.bookId()).getReorderLevel()));
+        }
         
-        log.info("Reserved {} units for book {}", quantity, bookId);
+        lines.forEach(line -> metricsService.recordInventoryReserved(
+            metricsService.getQuantityRange(line.requestedQuantity())));
+        log.info("Cart reserved {}", kv("lines", lines.size()));
+        return new CartReservationResponse(lines);
     }
     
     @Override
     @Transactional
+    @OptimisticRetry
     public void releaseReservation(UUID bookId, Integer quantity) {
-        Book book = bookRepository.findById(bookId)
-            .orElseThrow(() -> new ResourceNotFoundException("Book", bookId));
-            
-        int newReservedQuantity = Math.max(0, book.getReservedQuantity() - quantity);
-        book.setReservedQuantity(newReservedQuantity);
-        bookRepository.save(book);
+        InventoryOperationEvent event = InventoryOperationEvent.start();
+        boolean succeeded = false;
+        try {
+            Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book", bookId));
+                
+            int previousAvailable = book.getAvailableQuantity();
+            int newReservedQuantity = Math.max(0, book.getReservedQuantity() - quantity);
+            book.setReservedQuantity(newReservedQuantity);
+            bookRepository.save(book);
+            publishStockLevelChange(book, previousAvailable);
+            succeeded = true;
+        } finally {
+            event.finish("release", bookId, quantity, succeeded);
+        }
         
-        log.info("Released {} units reservation for book {}", quantity, bookId);
+        log.info("Reservation released {} {}", kv("bookId", bookId), kv("quantity", quantity));
     }
     
     @Override
     @Transactional
+    @OptimisticRetry
     public void adjustInventory(UUID bookId, InventoryAdjustmentDto adjustment) {
-        Book book = bookRepository.findById(bookId)
-            .orElseThrow(() -> new ResourceNotFoundException("Book", bookId));
+        InventoryOperationEvent event = InventoryOperationEvent.start();
+        boolean succeeded = false;
+        try {
+            Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book", bookId));
+                
+            int newQuantity = book.getQuantityInStock() + adjustment.quantityChange();
+            if (newQuantity < 0) {
+                throw new InvalidInventoryAdjustmentException(
+                    bookId,
+                    book.getQuantityInStock(),
+                    adjustment.quantityChange()
+                );
+            }
             
-        int newQuantity = book.getQuantityInStock() + adjustment.quantityChange();
-        if (newQuantity < 0) {
-            throw new InvalidInventoryAdjustmentException(
-                bookId,
-                book.getQuantityInStock(),
-                adjustment.quantityChange()
-            );
+            int previousAvailable = book.getAvailableQuantity();
+            book.setQuantityInStock(newQuantity);
+            bookRepository.save(book);
+            publishStockLevelChange(book, previousAvailable);
+            succeeded = true;
+        } finally {
+            event.finish("adjust", bookId, adjustment.quantityChange(), succeeded);
         }
         
-        book.setQuantityInStock(newQuantity);
-        bookRepository.save(book);
-        
-        log.info("Adjusted inventory for book {} by {} units. Reason: {}", 
-                bookId, adjustment.quantityChange(), adjustment.reason());
+        log.info("Inventory adjusted {} {} {}", 
+                kv("bookId", bookId), kv("quantityChange", adjustment.quantityChange()), kv("reason", adjustment.reason()));
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Page<InventoryItemDto> getBooksNeedingRestock(Pageable pageable) {
+        return bookRepository.findInventoryNeedingRestock(pageable);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<BookDto> getBooksNeedingRestock() {
-        return bookRepository.findBooksNeedingRestock()
-                .stream()
-                .map(bookMapper::toDto)
-                .toList();
+    public Page<InventoryItemDto> getLowStockBooks(int threshold, Pageable pageable) {
+        return bookRepository.findInventoryWithLowStock(threshold, pageable);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<BookDto> getLowStockBooks(int threshold) {
-        return bookRepository.findBooksWithLowStock(threshold)
-                .stream()
-                .map(bookMapper::toDto)
-                .toList();
+    public void streamBooksNeedingRestock(Consumer<InventoryItemDto> consumer) {
+        // The stream holds an open cursor, so it must be consumed and closed inside this transaction
+        try (Stream<InventoryItemDto> items = bookRepository.streamInventoryNeedingRestock()) {
+            items.forEach(consumer);
+        }
     }
     
     @Override
     @Transactional
+    @OptimisticRetry
     public void updateReorderLevel(UUID bookId, Integer newLevel) {
         Book book = bookRepository.findById(bookId)
             .orElseThrow(() -> new ResourceNotFoundException("Book", bookId));
@@ -103,15 +203,22 @@ public class InventoryServiceImpl implements InventoryService {
         book.setReorderLevel(newLevel);
         bookRepository.save(book);
         
-        log.info("Updated reorder level for book {} to {}", bookId, newLevel);
+        log.info("Reorder level updated {} {}", kv("bookId", bookId), kv("reorderLevel", newLevel));
     }
     
     @Override
     @Transactional
+    @OptimisticRetry
     public void bulkInventoryUpdate(List<InventoryAdjustmentDto> adjustments) {
         for (InventoryAdjustmentDto adjustment : adjustments) {
             adjustInventory(adjustment.bookId(), adjustment);
         }
-        log.info("Completed bulk inventory update for {} books", adjustments.size());
+        log.info("Bulk inventory update completed {}", kv("books", adjustments.size()));
+    }
+    
+    private void publishStockLevelChange(Book book, int previousAvailable) {
+        // Listeners only see the change once the transaction commits
+        eventPublisher.publishEvent(new StockLevelChangedEvent(
+            book.getId(), previousAvailable, book.getAvailableQuantity(), book.getReorderLevel()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,287 @@
+package com.bookstore.service.impl;
+
+import com.bookstore.event.StockLevelChangedEvent;
+import com.bookstore.exception.InsufficientInventoryException;
+import com.bookstore.exception.ReservationTimeoutException;
+import com.bookstore.exception.ResourceNotFoundException;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.StockLevel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Group-commit pipeline for single-book reservations. Concurrent requests for the same book are queued
+ * and drained by one worker per book, which locks the row once per micro-batch, accepts requests in
+ * arrival order while stock lasts and applies the accepted total with a single guarded UPDATE.
+ */
+@Component
+@Slf4j
+public class ReservationPipeline {
+    
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final long lingerNanos;
+    private final int maxBatchSize;
+    private final Duration timeout;
+    private final Duration batchTimeout;
+    private final ConcurrentMap<UUID, BookQueue> queues = new ConcurrentHashMap<>();
+    private final ExecutorService drainers = Executors.newVirtualThreadPerTaskExecutor();
+    
+    public ReservationPipeline(
+        BookRepository bookRepository,
+        TransactionTemplate transactionTemplate,
+        ApplicationEventPublisher eventPublisher,
+        @Value("${app.inventory.reservation-pipeline.enabled:true}") boolean enabled,
+        @Value("${app.inventory.reservation-pipeline.linger:1ms}") Duration linger,
+        @Value("${app.inventory.reservation-pipeline.max-batch-size:64}") int maxBatchSize,
+        @Value("${app.inventory.reservation-pipeline.timeout:PT5S}") Duration timeout,
+        @Value("${app.inventory.reservation-pipeline.batch-timeout:PT30S}") Duration batchTimeout
+    ) {
+        this.bookRepository = bookRepository;
+        // Own copy, so the batch transaction is bounded without changing the shared template
+        this.transactionTemplate =
+            new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+        this.transactionTemplate.setTimeout((int) Math.max(1, batchTimeout.toSeconds()));
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.lingerNanos = linger.toNanos();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.timeout = timeout;
+        this.batchTimeout = batchTimeout;
+    }
+    
+    /**
+     * Reserve stock for one book, blocking until the batch containing this request has committed
+     */
+    public void reserve(UUID bookId, int quantity) {
+        PendingReservation reservation = new PendingReservation(quantity, new CompletableFuture<>(), new AtomicBoolean());
+        
+        // Inside a caller's transaction the batch would run on another connection and could wait on
+        // row locks the caller holds, so apply it in place instead
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+            reservation.claimed().set(true);
+            complete(bookId, List.of(reservation));
+        } else {
+            // Enqueued inside compute so a drainer can never retire the queue between lookup and add
+            BookQueue queue = queues.compute(bookId, (id, existing) -> {
+                BookQueue target = existing != null ? existing : new BookQueue();
+                target.pending.add(reservation);
+                target.size.incrementAndGet();
+                return target;
+            });
+            if (queue.size.get() >= maxBatchSize) {
+                // A full batch is waiting; cut the drainer's linger short
+                LockSupport.unpark(queue.lingering);
+            }
+            scheduleDrain(bookId, queue);
+        }
+        
+        try {
+            awaitOutcome(bookId, reservation);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Waits up to {@code timeout} for a drainer to pick the request up, withdrawing it otherwise. Once it
+     * is part of a batch, waits at most {@code batchTimeout} more for that transaction; past that the
+     * outcome is unknown and the caller gets a {@link ReservationTimeoutException} that says so.
+     */
+    private void awaitOutcome(UUID bookId, PendingReservation reservation) {
+        long retryAfterSeconds = Math.max(1, timeout.toSeconds());
+        try {
+            reservation.result().get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            return;
+        } catch (TimeoutException e) {
+            if (reservation.claimed().compareAndSet(false, true)) {
+                // Withdrawn before any drainer took it, so nothing was reserved and a retry is safe
+                throw new ReservationTimeoutException(bookId, retryAfterSeconds);
+            }
+            // Already part of a batch; its outcome arrives when that transaction ends
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReservationTimeoutException(bookId, retryAfterSeconds,
+                reservation.claimed().compareAndSet(false, true));
+        }
+        
+        try {
+            reservation.result().get(batchTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Reservation batch for book {} did not finish within {}", bookId, batchTimeout);
+            throw new ReservationTimeoutException(bookId, retryAfterSeconds, false);
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReservationTimeoutException(bookId, retryAfterSeconds, false);
+        }
+    }
+    
+    private void scheduleDrain(UUID bookId, BookQueue queue) {
+        if (queue.draining.compareAndSet(false, true)) {
+            drainers.execute(() -> drain(bookId, queue));
+        }
+    }
+    
+    private void drain(UUID bookId, BookQueue queue) {
+        try {
+            // Published before linger reads the size, so a reserve() that fills the batch always sees it
+            queue.lingering = Thread.currentThread();
+            try {
+                linger(bookId, queue.size::get);
+            } finally {
+                queue.lingering = null;
+            }
+            
+            List<PendingReservation> batch;
+            while (!(batch = pollBatch(queue)).isEmpty()) {
+                complete(bookId, batch);
+            }
+        } finally {
+            // Retire the queue while this drainer still owns it; compute in reserve() cannot interleave
+            queues.computeIfPresent(bookId, (id, current) ->
+                current == queue && queue.pending.isEmpty() ? null : current);
+            queue.draining.set(false);
+            if (!queue.pending.isEmpty()) {
+                // A request slipped in after the last poll; make sure someone drains it
+                scheduleDrain(bookId, queue);
+            }
+        }
+    }
+    
+    /**
+     * Gives requests that arrive together a moment to join the same batch. Returns as soon as a full
+     * batch is queued; {@link #reserve} unparks the drainer when it enqueues the request that fills it.
+     *
+     * @param queuedRequests requests currently waiting for this book
+     */
+    protected void linger(UUID bookId, IntSupplier queuedRequests) {
+        long deadline = System.nanoTime() + lingerNanos;
+        long remaining;
+        while (queuedRequests.getAsInt() < maxBatchSize && (remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+    
+    private List<PendingReservation> pollBatch(BookQueue queue) {
+        List<PendingReservation> batch = new ArrayList<>();
+        PendingReservation next;
+        while (batch.size() < maxBatchSize && (next = queue.pending.poll()) != null) {
+            queue.size.decrementAndGet();
+            // Requests whose caller gave up waiting are dropped unapplied
+            if (next.claimed().compareAndSet(false, true)) {
+                batch.add(next);
+            }
+        }
+        return batch;
+    }
+    
+    private void complete(UUID bookId, List<PendingReservation> batch) {
+        List<RuntimeException> outcomes;
+        try {
+            outcomes = transactionTemplate.execute(status -> apply(bookId, batch));
+        } catch (RuntimeException e) {
+            batch.forEach(reservation -> reservation.result().completeExceptionally(e));
+            return;
+        } catch (Error e) {
+            batch.forEach(reservation -> reservation.result().completeExceptionally(e));
+            throw e;
+        }
+        
+        for (int i = 0; i < batch.size(); i++) {
+            RuntimeException rejection = outcomes.get(i);
+            if (rejection == null) {
+                batch.get(i).result().complete(null);
+            } else {
+                batch.get(i).result().completeExceptionally(rejection);
+            }
+        }
+    }
+    
+    /**
+     * Decide the batch under the row lock; returns one entry per request, null meaning accepted
+     */
+    private List<RuntimeException> apply(UUID bookId, List<PendingReservation> batch) {
+        List<StockLevel> levels = bookRepository.lockStockLevels(List.of(bookId));
+        if (levels.isEmpty()) {
+            throw new ResourceNotFoundException("Book", bookId);
+        }
+        
+        StockLevel level = levels.get(0);
+        int remaining = level.getAvailable();
+        int accepted = 0;
+        List<RuntimeException> outcomes = new ArrayList<>(batch.size());
+        for (PendingReservation reservation : batch) {
+            if (reservation.quantity() <= remaining) {
+                remaining -= reservation.quantity();
+                accepted += reservation.quantity();
+                outcomes.add(null);
+            } else {
+                outcomes.add(new InsufficientInventoryException(bookId, reservation.quantity(), remaining));
+            }
+        }
+        
+        if (accepted > 0 && bookRepository.reserveIfAvailable(bookId, accepted, Instant.now()) == 0) {
+            // Cannot happen while the row lock is held; fail the whole batch rather than over-reserve
+            throw new IllegalStateException("Guarded reservation update rejected for book " + bookId);
+        }
+        if (accepted > 0) {
+            eventPublisher.publishEvent(new StockLevelChangedEvent(
+                bookId, level.getAvailable(), level.getAvailable() - accepted, level.getReorderLevel()));
+        }
+        
+        log.debug("Reserved {} units for book {} in a batch of {} requests", accepted, bookId, batch.size());
+        return outcomes;
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        drainers.shutdown();
+    }
+    
+    /**
+     * @param claimed set by whichever comes first: the drainer taking the request or its caller timing out
+     */
+    private record PendingReservation(int quantity, CompletableFuture<Void> result, AtomicBoolean claimed) {}
+    
+    private static final class BookQueue {
+        private final ConcurrentLinkedQueue<PendingReservation> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // ConcurrentLinkedQueue.size() walks the queue, so the count is kept alongside it
+        private final AtomicInteger size = new AtomicInteger();
+        private volatile Thread lingering;
+    }
+}
@@ -0,0 +1,194 @@
+package com.bookstore.service.impl;
+
+import com.bookstore.dto.StockAlert;
+import com.bookstore.event.StockLevelChangedEvent;
+import com.bookstore.service.StockAlertService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes stock alerts to SSE subscribers. Crossings are detected from the before/after quantities that
+ * inventory writes publish, so no polling query runs. Each subscriber has a bounded buffer that drops
+ * its oldest alerts when the client cannot keep up, so one slow dashboard never stalls the writers.
+ */
+@Service
+@Slf4j
+public class StockAlertServiceImpl implements StockAlertService {
+    
+    private final Duration emitterTimeout;
+    private final int bufferSize;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong sequence = new AtomicLong();
+    
+    public StockAlertServiceImpl(
+        @Value("${app.inventory.alerts.emitter-timeout:PT30M}") Duration emitterTimeout,
+        @Value("${app.inventory.alerts.buffer-size:256}") int bufferSize
+    ) {
+        this.emitterTimeout = emitterTimeout;
+        this.bufferSize = Math.max(1, bufferSize);
+    }
+    
+    @Override
+    public SseEmitter subscribe(Integer threshold) {
+        SseEmitter emitter = createEmitter(emitterTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, threshold, new ArrayBlockingQueue<>(bufferSize));
+        
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        
+        log.debug("Stock alert subscriber added (threshold {}), {} active", threshold, subscribers.size());
+        return emitter;
+    }
+    
+    protected SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockLevelChanged(StockLevelChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        
+        Instant now = Instant.now();
+        StockAlert restockAlert = null;
+        Integer reorderLevel = event.reorderLevel();
+        // Books without a reorder level only trigger subscriber thresholds
+        if (reorderLevel != null) {
+            if (event.crossedDownTo(reorderLevel)) {
+                restockAlert = alert(StockAlert.Type.RESTOCK_NEEDED, event, reorderLevel, now);
+            } else if (event.crossedUpFrom(reorderLevel)) {
+                restockAlert = alert(StockAlert.Type.RESTOCKED, event, reorderLevel, now);
+            }
+        }
+        
+        for (Subscriber subscriber : subscribers) {
+            if (restockAlert != null) {
+                subscriber.offer(restockAlert);
+            }
+            Integer threshold = subscriber.threshold();
+            if (threshold != null) {
+                if (event.crossedDownTo(threshold)) {
+                    subscriber.offer(alert(StockAlert.Type.LOW_STOCK, event, threshold, now));
+                } else if (event.crossedUpFrom(threshold)) {
+                    subscriber.offer(alert(StockAlert.Type.STOCK_RECOVERED, event, threshold, now));
+                }
+            }
+        }
+    }
+    
+    // Keeps idle connections open through proxies that close silent streams
+    @Scheduled(fixedDelayString = "${app.inventory.alerts.heartbeat-interval:PT15S}")
+    public void sendHeartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            senders.execute(() -> subscriber.send(SseEmitter.event().comment("heartbeat")));
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter().complete());
+        senders.shutdown();
+    }
+    
+    private static StockAlert alert(StockAlert.Type type, StockLevelChangedEvent event, int level, Instant now) {
+        return new StockAlert(type, event.bookId(), event.previousAvailable(), event.currentAvailable(), level, now);
+    }
+    
+    private final class Subscriber {
+        
+        private final SseEmitter emitter;
+        private final Integer threshold;
+        private final BlockingQueue<StockAlert> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicLong dropped = new AtomicLong();
+        
+        Subscriber(SseEmitter emitter, Integer threshold, BlockingQueue<StockAlert> buffer) {
+            this.emitter = emitter;
+            this.threshold = threshold;
+            this.buffer = buffer;
+        }
+        
+        SseEmitter emitter() {
+            return emitter;
+        }
+        
+        Integer threshold() {
+            return threshold;
+        }
+        
+        void offer(StockAlert alert) {
+            // Drop the oldest alert rather than block the committing writer
+            while (!buffer.offer(alert)) {
+                if (buffer.poll() != null) {
+                    dropped.incrementAndGet();
+                }
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+        
+        private void drain() {
+            try {
+                List<StockAlert> batch = new ArrayList<>();
+                while (buffer.drainTo(batch) > 0) {
+                    for (StockAlert alert : batch) {
+                        if (!send(SseEmitter.event()
+                                .id(Long.toString(sequence.incrementAndGet()))
+                                .name(alert.type().name())
+                                .data(alert, MediaType.APPLICATION_JSON))) {
+                            return;
+                        }
+                    }
+                    batch.clear();
+                }
+            } finally {
+                draining.set(false);
+                if (!buffer.isEmpty() && subscribers.contains(this) && draining.compareAndSet(false, true)) {
+                    senders.execute(this::drain);
+                }
+            }
+        }
+        
+        // Heartbeats and alerts are sent from different threads, and an emitter must not be written concurrently
+        synchronized boolean send(SseEmitter.SseEventBuilder event) {
+            long lost = dropped.getAndSet(0);
+            try {
+                if (lost > 0) {
+                    emitter.send(SseEmitter.event().comment(lost + " alerts dropped"));
+                }
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the emitter callbacks may not fire for a half-closed connection
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.bookstore.service.impl;
+
+import com.bookstore.repository.RevokedTokenRepository;
+import com.bookstore.service.TokenRevocationService;
+import com.bookstore.util.BloomFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Checks every authenticated request against revoked jtis. The Bloom filter answers almost all of them
+ * in memory; only its positives, true or false, reach the revoked_tokens table, and those answers are
+ * cached. Other instances' revocations are merged into the filter every sync interval, which bounds how
+ * long a token revoked elsewhere remains usable here.
+ */
+@Service
+@Slf4j
+@Profile("jwt")
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+    
+    // Rows committed shortly after a sync started may carry an earlier created_at
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(5);
+    
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+    private final Cache<String, Boolean> lookups;
+    private final Counter databaseLookups;
+    
+    private volatile BloomFilter filter;
+    private volatile Instant lastSync = Instant.EPOCH;
+    
+    public TokenRevocationServiceImpl(
+        RevokedTokenRepository revokedTokenRepository,
+        MeterRegistry meterRegistry,
+        @Value("${app.security.revocation.expected-revocations:100000}") int expectedRevocations,
+        @Value("${app.security.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+        @Value("${app.security.revocation.lookup-cache.max-size:10000}") long lookupCacheSize,
+        @Value("${app.security.revocation.lookup-cache.ttl:PT5M}") Duration lookupCacheTtl
+    ) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        this.lookups = Caffeine.newBuilder()
+            .maximumSize(lookupCacheSize)
+            .expireAfterWrite(lookupCacheTtl)
+            .build();
+        this.databaseLookups = Counter.builder("auth.revocation.lookups")
+            .description("Revocation checks the Bloom filter could not answer alone")
+            .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    void loadRevocations() {
+        rebuild();
+    }
+    
+    @Override
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        
+        if (revokedTokenRepository.insertIfAbsent(UUID.randomUUID(), jti, expiresAt, Instant.now()) == 0) {
+            log.debug("Token {} already revoked", jti);
+        }
+        
+        // Only a committed revocation may reject tokens here, or a rolled-back logout would still lock the token out
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markRevoked(jti);
+                }
+            });
+        } else {
+            markRevoked(jti);
+        }
+    }
+    
+    private void markRevoked(String jti) {
+        filter.add(jti);
+        lookups.put(jti, true);
+    }
+    
+    @Override
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        return lookups.get(jti, key -> {
+            databaseLookups.increment();
+            return revokedTokenRepository.existsByJti(key);
+        });
+    }
+    
+    @Override
+    @Scheduled(fixedDelayString = "${app.security.revocation.sync-interval:PT10S}")
+    public void syncRevocations() {
+        Instant now = Instant.now();
+        List<String> jtis = revokedTokenRepository.findJtisRevokedSince(lastSync.minus(SYNC_OVERLAP), now);
+        BloomFilter current = filter;
+        for (String jti : jtis) {
+            current.add(jti);
+            // A cached "not revoked" from before the revocation would otherwise outlive it
+            lookups.invalidate(jti);
+        }
+        lastSync = now;
+    }
+    
+    @Override
+    @Scheduled(fixedDelayString = "${app.security.revocation.cleanup-interval:PT1H}")
+    public int purgeExpired() {
+        int removed = revokedTokenRepository.deleteExpired(Instant.now());
+        // Expired jtis only cost false positives, but a periodic rebuild keeps the filter from saturating
+        rebuild();
+        if (removed > 0) {
+            log.debug("Purged {} expired token revocations", removed);
+        }
+        return removed;
+    }
+    
+    private void rebuild() {
+        Instant started = Instant.now();
+        BloomFilter rebuilt = new BloomFilter(expectedRevocations, falsePositiveRate);
+        List<String> jtis = revokedTokenRepository.findActiveJtis(started);
+        jtis.forEach(rebuilt::add);
+        filter = rebuilt;
+        // Revocations racing the rebuild are picked up by the next sync
+        lastSync = started;
+        if (jtis.size() > expectedRevocations) {
+            log.warn("{} active token revocations exceed the expected {}; raise " +
+                "app.security.revocation.expected-revocations to keep database lookups rare",
+                jtis.size(), expectedRevocations);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.bookstore.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over strings. A negative answer is definite; a positive one must be confirmed
+ * elsewhere. Bits are set with compare-and-set, so adds and lookups need no locking; a lookup racing an
+ * add may miss it, which callers tolerate the same way they tolerate replication lag.
+ */
+public class BloomFilter {
+    
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive and the false positive rate in (0, 1)");
+        }
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int wordCount = (int) Math.max(1, (bits + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = wordCount * 64L;
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / expectedInsertions * ln2));
+    }
+    
+    public void add(String value) {
+        long hash1 = hash1(value);
+        long hash2 = hash2(value);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(word, current, current | mask));
+        }
+    }
+    
+    public boolean mightContain(String value) {
+        long hash1 = hash1(value);
+        long hash2 = hash2(value);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public long bitSize() {
+        return bitCount;
+    }
+    
+    public int hashCount() {
+        return hashCount;
+    }
+    
+    // Two independent hashes combined as hash1 + i * hash2 (Kirsch-Mitzenmacher)
+    private static long hash1(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+    
+    private static long hash2(String value) {
+        // Odd, so successive probes never collapse onto the same bit
+        return mix(value.hashCode() * 0x9e3779b97f4a7c15L + value.length()) | 1L;
+    }
+    
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
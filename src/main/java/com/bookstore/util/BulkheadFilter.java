@@ -0,0 +1,199 @@
+package com.bookstore.util;
+
+import com.bookstore.exception.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits concurrent requests per endpoint class to a share of the connection pool. With virtual threads
+ * Tomcat accepts far more requests than there are connections, so excess requests wait briefly for a
+ * permit and are then rejected with 503 and Retry-After instead of timing out inside Hikari.
+ */
+@Slf4j
+public class BulkheadFilter extends OncePerRequestFilter {
+    
+    public enum Compartment {
+        SEARCH, DETAIL, WRITE, BULK
+    }
+    
+    private final Map<Compartment, Bulkhead> bulkheads = new EnumMap<>(Compartment.class);
+    private final Duration maxWait;
+    private final long retryAfterSeconds;
+    private final HandlerExceptionResolver handlerExceptionResolver;
+    
+    public BulkheadFilter(Map<Compartment, Integer> permits,
+                          Duration maxWait,
+                          Duration retryAfter,
+                          MeterRegistry meterRegistry,
+                          HandlerExceptionResolver handlerExceptionResolver) {
+        this.maxWait = maxWait;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.handlerExceptionResolver = handlerExceptionResolver;
+        permits.forEach((compartment, size) -> 
+            bulkheads.put(compartment, new Bulkhead(compartment, Math.max(1, size), meterRegistry)));
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, 
+                                   HttpServletResponse response, 
+                                   FilterChain filterChain) throws ServletException, IOException {
+        
+        Compartment compartment = classify(request);
+        Bulkhead bulkhead = compartment != null ? bulkheads.get(compartment) : null;
+        if (bulkhead == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        if (!bulkhead.tryAcquire(maxWait)) {
+            bulkhead.rejections.increment();
+            log.warn("Rejected {} {} - {} bulkhead full", request.getMethod(), request.getRequestURI(), compartment);
+            handlerExceptionResolver.resolveException(request, response, null, 
+                new BulkheadFullException(compartment.name().toLowerCase(), retryAfterSeconds));
+            return;
+        }
+        
+        boolean releaseNow = true;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // Streamed responses keep using the database after this thread returns
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(bulkhead));
+                releaseNow = false;
+            }
+        } finally {
+            if (releaseNow) {
+                bulkhead.release();
+            }
+        }
+    }
+    
+    static Compartment classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        
+        if (path.equals("/api/inventory/bulk-adjust") || path.startsWith("/api/inventory/restock-needed/export")) {
+            return Compartment.BULK;
+        }
+        // Long-lived SSE subscriptions hold no connection, so they must not occupy a permit
+        if (path.startsWith("/api/inventory/alerts")) {
+            return null;
+        }
+        if ("GET".equals(method)) {
+            if (path.equals("/api/books")) {
+                return Compartment.SEARCH;
+            }
+            if (path.startsWith("/api/books/") || path.startsWith("/api/inventory/")) {
+                return Compartment.DETAIL;
+            }
+            return null;
+        }
+        if (path.equals("/api/books") || path.startsWith("/api/books/") || path.startsWith("/api/inventory/")) {
+            return Compartment.WRITE;
+        }
+        return null;
+    }
+    
+    private static final class ReleasingAsyncListener implements AsyncListener {
+        
+        private final Bulkhead bulkhead;
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        ReleasingAsyncListener(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+        
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+        
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+        
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+        
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+        
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.release();
+            }
+        }
+    }
+    
+    private static final class Bulkhead {
+        
+        private final Semaphore permits;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final Counter rejections;
+        
+        Bulkhead(Compartment compartment, int size, MeterRegistry meterRegistry) {
+            // Fair, so waiters are served in arrival order rather than by whoever retries fastest
+            this.permits = new Semaphore(size, true);
+            String tag = compartment.name().toLowerCase();
+            
+            Gauge.builder("bulkhead.waiting", waiting, AtomicInteger::get)
+                .description("Requests waiting for a bulkhead permit")
+                .tag("compartment", tag)
+                .register(meterRegistry);
+            Gauge.builder("bulkhead.active", permits, p -> size - p.availablePermits())
+                .description("Requests currently holding a bulkhead permit")
+                .tag("compartment", tag)
+                .register(meterRegistry);
+            Gauge.builder("bulkhead.capacity", () -> size)
+                .description("Bulkhead permits")
+                .tag("compartment", tag)
+                .register(meterRegistry);
+            this.rejections = Counter.builder("bulkhead.rejections")
+                .description("Requests rejected because the bulkhead was full")
+                .tag("compartment", tag)
+                .register(meterRegistry);
+        }
+        
+        boolean tryAcquire(Duration maxWait) {
+            if (permits.tryAcquire()) {
+                return true;
+            }
+            waiting.incrementAndGet();
+            try {
+                return permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+        
+        void release() {
+            permits.release();
+        }
+    }
+}
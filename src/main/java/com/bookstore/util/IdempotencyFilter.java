@@ -0,0 +1,331 @@
+package com.bookstore.util;
+
+import com.bookstore.dto.IdempotentResponse;
+import com.bookstore.exception.IdempotencyKeyMismatchException;
+import com.bookstore.exception.IdempotentRequestInProgressException;
+import com.bookstore.exception.IdempotentRequestTooLargeException;
+import com.bookstore.service.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Honours the Idempotency-Key header on book and inventory writes: the first response is stored and
+ * replayed for duplicates, and duplicates arriving while the original is running wait for its result.
+ * Registered after the security filter chain so that keys are scoped to the authenticated principal.
+ * The body is buffered for fingerprinting, so requests whose body exceeds {@code maxBodySize} are
+ * rejected with 413 rather than read into memory.
+ */
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+    
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("POST", "PUT");
+    
+    private final IdempotencyService idempotencyService;
+    private final HandlerExceptionResolver handlerExceptionResolver;
+    private final Duration inFlightWait;
+    private final int maxBodySize;
+    private final ConcurrentMap<String, CompletableFuture<IdempotentResponse>> inFlight = new ConcurrentHashMap<>();
+    
+    public IdempotencyFilter(IdempotencyService idempotencyService,
+                             HandlerExceptionResolver handlerExceptionResolver,
+                             Duration inFlightWait,
+                             DataSize maxBodySize) {
+        this.idempotencyService = idempotencyService;
+        this.handlerExceptionResolver = handlerExceptionResolver;
+        this.inFlightWait = inFlightWait;
+        this.maxBodySize = Math.toIntExact(maxBodySize.toBytes());
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!IDEMPOTENT_METHODS.contains(request.getMethod())) {
+            return true;
+        }
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (key == null || key.isBlank()) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !(path.equals("/api/books") || path.startsWith("/api/books/") || path.startsWith("/api/inventory/"));
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, 
+                                   HttpServletResponse response, 
+                                   FilterChain filterChain) throws ServletException, IOException {
+        
+        try {
+            CachedBodyRequest cachedRequest = new CachedBodyRequest(request, readBody(request));
+            String keyHash = sha256(principalName() + "\n" + request.getHeader(IDEMPOTENCY_KEY_HEADER));
+            String fingerprint = fingerprint(cachedRequest);
+            
+            while (true) {
+                Optional<IdempotentResponse> stored = idempotencyService.find(keyHash);
+                if (stored.isPresent()) {
+                    replay(stored.get(), fingerprint, response);
+                    return;
+                }
+                
+                CompletableFuture<IdempotentResponse> execution = new CompletableFuture<>();
+                CompletableFuture<IdempotentResponse> running = inFlight.putIfAbsent(keyHash, execution);
+                if (running == null) {
+                    execute(cachedRequest, response, filterChain, keyHash, fingerprint, execution);
+                    return;
+                }
+                
+                IdempotentResponse result = await(running);
+                if (result != null) {
+                    replay(result, fingerprint, response);
+                    return;
+                }
+                // The original produced nothing worth replaying (e.g. a 5xx), so this duplicate runs for real
+            }
+        } catch (IdempotencyKeyMismatchException | IdempotentRequestInProgressException
+                 | IdempotentRequestTooLargeException ex) {
+            handlerExceptionResolver.resolveException(request, response, null, ex);
+        }
+    }
+    
+    private byte[] readBody(HttpServletRequest request) throws IOException {
+        // Content-Length may be absent (chunked) or wrong, so the read itself is capped as well
+        if (request.getContentLengthLong() > maxBodySize) {
+            throw new IdempotentRequestTooLargeException(maxBodySize);
+        }
+        byte[] body = request.getInputStream().readNBytes(maxBodySize + 1);
+        if (body.length > maxBodySize) {
+            throw new IdempotentRequestTooLargeException(maxBodySize);
+        }
+        return body;
+    }
+    
+    private void execute(CachedBodyRequest request, HttpServletResponse response, FilterChain filterChain,
+                         String keyHash, String fingerprint,
+                         CompletableFuture<IdempotentResponse> execution) throws ServletException, IOException {
+        
+        ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper(response);
+        IdempotentResponse captured = null;
+        try {
+            // The key may have been stored between our lookup and claiming the in-flight slot
+            Optional<IdempotentResponse> stored = idempotencyService.find(keyHash);
+            if (stored.isPresent()) {
+                captured = stored.get();
+                replay(captured, fingerprint, wrappedResponse);
+                return;
+            }
+            
+            filterChain.doFilter(request, wrappedResponse);
+            
+            if (isReplayable(wrappedResponse.getStatus())) {
+                captured = new IdempotentResponse(
+                    fingerprint,
+                    wrappedResponse.getStatus(),
+                    wrappedResponse.getContentType(),
+                    wrappedResponse.getHeader(HttpHeaders.LOCATION),
+                    wrappedResponse.getContentAsByteArray()
+                );
+                store(keyHash, captured);
+            }
+        } finally {
+            inFlight.remove(keyHash, execution);
+            execution.complete(captured);
+            wrappedResponse.copyBodyToResponse();
+        }
+    }
+    
+    private void store(String keyHash, IdempotentResponse captured) {
+        try {
+            idempotencyService.store(keyHash, captured);
+        } catch (RuntimeException e) {
+            // The write already happened; failing to remember it must not turn a success into an error
+            log.warn("Failed to store idempotent response", e);
+        }
+    }
+    
+    private IdempotentResponse await(CompletableFuture<IdempotentResponse> running) {
+        try {
+            return running.get(inFlightWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            throw new IdempotentRequestInProgressException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotentRequestInProgressException();
+        }
+    }
+    
+    private static void replay(IdempotentResponse stored, String fingerprint, 
+                               HttpServletResponse response) throws IOException {
+        if (!stored.matches(fingerprint)) {
+            throw new IdempotencyKeyMismatchException();
+        }
+        
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.location());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.body() != null && stored.body().length > 0) {
+            response.setContentLength(stored.body().length);
+            response.getOutputStream().write(stored.body());
+        }
+    }
+    
+    private static boolean isReplayable(int status) {
+        // Server errors and throttling are transient, so a retry should execute again
+        return status < 500 && status != 429;
+    }
+    
+    private static String principalName() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : "anonymous";
+    }
+    
+    private static String fingerprint(CachedBodyRequest request) {
+        MessageDigest digest = sha256Digest();
+        digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ' ');
+        digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+        if (request.getQueryString() != null) {
+            digest.update((byte) '?');
+            digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) '\n');
+        digest.update(request.body);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    private static String sha256(String value) {
+        return HexFormat.of().formatHex(sha256Digest().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * Reads the body once so it can be fingerprinted and still be consumed by the handler
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        
+        private final byte[] body;
+        
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                
+                private ReadListener readListener;
+                
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+                
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+                
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    Objects.requireNonNull(listener, "listener");
+                    if (!isAsyncStarted()) {
+                        throw new IllegalStateException("Non-blocking reads require an asynchronous request");
+                    }
+                    if (readListener != null) {
+                        throw new IllegalStateException("A ReadListener is already registered");
+                    }
+                    readListener = listener;
+                    // The body is already in memory and isReady() is always true, so one onDataAvailable
+                    // lets the listener drain it; callbacks run on a container thread, not inside this call
+                    getAsyncContext().start(() -> {
+                        try {
+                            if (!isFinished()) {
+                                listener.onDataAvailable();
+                            }
+                            if (isFinished()) {
+                                listener.onAllDataRead();
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            listener.onError(e);
+                        }
+                    });
+                }
+                
+                @Override
+                public int read() {
+                    return input.read();
+                }
+                
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+        
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null 
+                ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+        
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+        
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
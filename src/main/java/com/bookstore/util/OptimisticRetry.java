@@ -0,0 +1,33 @@
+package com.bookstore.util;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs the annotated transactional method when it fails with an optimistic locking conflict.
+ * Retries only apply when the call starts its own transaction; inside an existing transaction
+ * the conflict is propagated so the outer caller can decide.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OptimisticRetry {
+    
+    /**
+     * Total number of attempts, including the first call
+     */
+    int maxAttempts() default 4;
+    
+    /**
+     * Upper bound of the first backoff in milliseconds; doubled on every further retry
+     */
+    long initialBackoffMs() default 10;
+    
+    /**
+     * Cap for a single backoff in milliseconds
+     */
+    long maxBackoffMs() default 200;
+}
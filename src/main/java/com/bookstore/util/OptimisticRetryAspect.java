@@ -0,0 +1,105 @@
+package com.bookstore.util;
+
+import com.bookstore.observability.jfr.OptimisticConflictEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries {@link OptimisticRetry} methods on version conflicts with full-jitter exponential backoff.
+ * Ordered ahead of the transaction interceptor so that every attempt runs in a fresh transaction.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@Slf4j
+public class OptimisticRetryAspect {
+    
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    
+    public OptimisticRetryAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Around("@annotation(retry)")
+    public Object retryOnConflict(ProceedingJoinPoint joinPoint, OptimisticRetry retry) throws Throwable {
+        // A rolled-back inner call would leave the surrounding transaction rollback-only, so retrying is pointless
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        
+        String operation = joinPoint.getSignature().getDeclaringType().getSimpleName()
+            + "." + joinPoint.getSignature().getName();
+        int maxAttempts = Math.max(1, retry.maxAttempts());
+        
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (RuntimeException ex) {
+                if (!isOptimisticLockConflict(ex)) {
+                    throw ex;
+                }
+                counter("optimistic.lock.conflicts", operation).increment();
+                
+                if (attempt >= maxAttempts) {
+                    counter("optimistic.lock.giveups", operation).increment();
+                    OptimisticConflictEvent.emit(operation, attempt, false, 0);
+                    log.warn("Giving up {} after {} attempts due to concurrent modification", operation, attempt);
+                    throw ex;
+                }
+                
+                counter("optimistic.lock.retries", operation).increment();
+                long backoff = backoffMillis(retry, attempt);
+                OptimisticConflictEvent.emit(operation, attempt, true, backoff);
+                log.debug("Version conflict in {} (attempt {}/{}), retrying in {} ms", 
+                        operation, attempt, maxAttempts, backoff);
+                sleep(backoff);
+            }
+        }
+    }
+    
+    static boolean isOptimisticLockConflict(Throwable ex) {
+        for (Throwable current = ex; current != null; current = current.getCause()) {
+            if (current instanceof OptimisticLockingFailureException || current instanceof OptimisticLockException) {
+                return true;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return false;
+    }
+    
+    private static long backoffMillis(OptimisticRetry retry, int attempt) {
+        // Full jitter: a uniform pick below the exponential ceiling spreads competing writers apart
+        long ceiling = Math.min(retry.maxBackoffMs(), retry.initialBackoffMs() << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+    
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+    
+    private Counter counter(String name, String operation) {
+        return counters.computeIfAbsent(name + ":" + operation, key -> Counter.builder(name)
+            .description("Optimistic locking outcomes for retried write operations")
+            .tag("operation", operation)
+            .register(meterRegistry));
+    }
+}
@@ -0,0 +1,113 @@
+package com.bookstore.util;
+
+import com.bookstore.exception.GlobalExceptionHandler;
+import com.bookstore.observability.jfr.RateLimitRejectedEvent;
+import com.bookstore.ratelimit.DistributedRateLimiter;
+import com.bookstore.ratelimit.RateLimitDecision;
+import com.bookstore.ratelimit.RateLimitPolicy;
+import com.bookstore.ratelimit.RateLimitProperties;
+import com.bookstore.ratelimit.VerifiedPrincipalLookup;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Applies {@link RateLimitPolicy} ahead of the security filter chain, so a rejected request never pays
+ * for BCrypt or a JWT signature check. Callers are identified through {@link VerifiedPrincipalLookup}
+ * from credentials verified on an earlier request; anyone else is limited by client IP. Rejections are
+ * answered with the 429 problem response here, without dispatching to Spring MVC.
+ */
+@Slf4j
+public class RateLimitingFilter extends OncePerRequestFilter {
+    
+    private final Cache<String, Bucket> cache;
+    private final RateLimitPolicy policy;
+    // Present when rate-limit.distributed.enabled; local buckets then only serve as its fallback
+    private final DistributedRateLimiter distributedRateLimiter;
+    private final VerifiedPrincipalLookup principalLookup;
+    private final ObjectMapper objectMapper;
+    
+    public RateLimitingFilter(Duration cacheTtl, long maxSize, RateLimitProperties properties,
+                              DistributedRateLimiter distributedRateLimiter,
+                              VerifiedPrincipalLookup principalLookup,
+                              ObjectMapper objectMapper) {
+        this.cache = Caffeine.newBuilder()
+            .expireAfterAccess(cacheTtl)
+            .maximumSize(maxSize)
+            .build();
+        this.policy = new RateLimitPolicy(properties);
+        this.distributedRateLimiter = distributedRateLimiter;
+        this.principalLookup = principalLookup;
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                   HttpServletResponse response,
+                                   FilterChain filterChain) throws ServletException, IOException {
+        
+        Authentication caller = principalLookup != null ? principalLookup.lookup(request) : null;
+        RateLimitPolicy.RateLimitTarget target = policy.resolve(request, caller);
+        String key = target.key();
+        
+        RateLimitDecision decision = distributedRateLimiter != null
+            ? distributedRateLimiter.tryConsume(key, target.cost(), target.capacity(),
+                () -> cache.get(key, k -> createNewBucket(target.capacity())))
+            : RateLimitDecision.consume(cache.get(key, k -> createNewBucket(target.capacity())), target.cost());
+        
+        if (decision.allowed()) {
+            response.addHeader("X-Rate-Limit-Remaining", String.valueOf(decision.remaining()));
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        long retryAfter = decision.retryAfterSeconds();
+        log.warn("Rate limit exceeded for {} (IP: {})", key, target.clientIp());
+        RateLimitRejectedEvent.emit(target.clientIp(), request.getRequestURI(), retryAfter);
+        writeRejection(response, target.clientIp(), retryAfter);
+    }
+    
+    protected Bucket createNewBucket(long capacity) {
+        Bandwidth limit = Bandwidth.classic(capacity, Refill.intervally(capacity, policy.getPeriod()));
+        return Bucket.builder()
+                .addLimit(limit)
+                .build();
+    }
+    
+    public Cache<String, Bucket> getCache() {
+        return cache;
+    }
+    
+    private void writeRejection(HttpServletResponse response, String clientIp, long retryAfter) throws IOException {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS,
+            String.format("Rate limit exceeded for IP: %s. Try again in %d seconds", clientIp, retryAfter));
+        problem.setType(URI.create(GlobalExceptionHandler.PROBLEM_BASE_URL + "/rate-limit-exceeded"));
+        problem.setTitle("Rate Limit Exceeded");
+        problem.setProperty("timestamp", Instant.now());
+        problem.setProperty("clientIp", clientIp);
+        problem.setProperty("retryAfterSeconds", retryAfter);
+        
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("X-Rate-Limit-Retry-After", String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), problem);
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Component
@@ -15,6 +16,14 @@ public class SortValidator {
         "title", "price", "publishedyear"
     );
     
+    // Inventory report sort keys mapped to the JPA property they order by
+    private static final Map<String, String> INVENTORY_SORT_FIELDS = Map.of(
+        "shortfall", "restockShortfall",
+        "viewcount", "viewCount",
+        "available", "availableQuantity",
+        "title", "title"
+    );
+    
     private static final Set<String> ALLOWED_DIRECTIONS = Set.of(
         "asc", "desc"
     );
@@ -38,20 +47,45 @@ public class SortValidator {
                 ". Allowed fields: " + ALLOWED_SORT_FIELDS);
         }
         
-        if (!ALLOWED_DIRECTIONS.contains(direction)) {
-            throw new InvalidSortParameterException("Invalid sort direction: " + direction + 
-                ". Allowed directions: " + ALLOWED_DIRECTIONS);
-        }
-        
         // Map lowercase field back to correct JPA field name
         String actualField = fieldLowercase;
         if ("publishedyear".equals(fieldLowercase)) {
             actualField = "publishedYear";
         }
         
-        Sort.Direction sortDirection = "desc".equals(direction) ? 
-            Sort.Direction.DESC : Sort.Direction.ASC;
+        return Sort.by(parseDirection(direction), actualField);
+    }
+    
+    public Sort validateAndParseInventory(String sortParam) {
+        if (sortParam == null || sortParam.isBlank()) {
+            return Sort.by(Sort.Direction.DESC, "restockShortfall").and(Sort.by("id"));
+        }
+        
+        List<String> parts = Arrays.asList(sortParam.split(","));
+        
+        if (parts.size() != 2) {
+            throw new InvalidSortParameterException("Sort parameter must be in format: field,direction");
+        }
+        
+        String fieldLowercase = parts.get(0).trim().toLowerCase();
+        String direction = parts.get(1).trim().toLowerCase();
+        
+        String actualField = INVENTORY_SORT_FIELDS.get(fieldLowercase);
+        if (actualField == null) {
+            throw new InvalidSortParameterException("Invalid sort field: " + fieldLowercase + 
+                ". Allowed fields: " + INVENTORY_SORT_FIELDS.keySet());
+        }
+        
+        // Stable secondary order keeps pages consistent when many books share the same value
+        return Sort.by(parseDirection(direction), actualField).and(Sort.by("id"));
+    }
+    
+    private Sort.Direction parseDirection(String direction) {
+        if (!ALLOWED_DIRECTIONS.contains(direction)) {
+            throw new InvalidSortParameterException("Invalid sort direction: " + direction + 
+                ". Allowed directions: " + ALLOWED_DIRECTIONS);
+        }
         
-        return Sort.by(sortDirection, actualField);
+        return "desc".equals(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
     }
-}
\ No newline at end of file
+}
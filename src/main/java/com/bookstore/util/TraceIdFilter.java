@@ -1,37 +1,98 @@
 package com.bookstore.util;
 
+import com.bookstore.observability.tracing.OpenSpan;
+import com.bookstore.observability.tracing.RequestTrace;
+import com.bookstore.observability.tracing.SpanKind;
+import com.bookstore.observability.tracing.SpanRecorder;
+import com.bookstore.observability.tracing.TraceParent;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.MDC;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
 
+/**
+ * Establishes the request's trace id and server span id. A valid W3C {@code traceparent} header
+ * continues the caller's trace; otherwise a legacy {@code X-Trace-Id} in UUID or 32-hex form is
+ * reused, and failing both a new trace starts. When a {@link SpanRecorder} is configured the whole
+ * request is recorded as the server span of that trace.
+ */
 public class TraceIdFilter extends OncePerRequestFilter {
     
+    public static final String TRACE_ID_MDC_KEY = "traceId";
+    public static final String SPAN_ID_MDC_KEY = "spanId";
+    
     private static final String TRACE_ID_HEADER = "X-Trace-Id";
-    private static final String TRACE_ID_MDC_KEY = "traceId";
+    private static final Pattern LEGACY_TRACE_ID = Pattern.compile(
+        "[0-9a-fA-F]{8}-?[0-9a-fA-F]{4}-?[0-9a-fA-F]{4}-?[0-9a-fA-F]{4}-?[0-9a-fA-F]{12}");
+    
+    private final SpanRecorder spanRecorder;
+    private final double sampleRate;
+    
+    public TraceIdFilter() {
+        this(null, 0);
+    }
+    
+    public TraceIdFilter(SpanRecorder spanRecorder, double sampleRate) {
+        this.spanRecorder = spanRecorder;
+        this.sampleRate = sampleRate;
+    }
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
                                    HttpServletResponse response, 
                                    FilterChain filterChain) throws ServletException, IOException {
         
-        String traceId = request.getHeader(TRACE_ID_HEADER);
-        if (traceId == null || traceId.isBlank()) {
-            traceId = UUID.randomUUID().toString();
-        }
+        Optional<TraceParent> parent = TraceParent.parse(request.getHeader(TraceParent.HEADER));
+        String traceId = parent.map(TraceParent::traceId)
+            .orElseGet(() -> legacyTraceId(request.getHeader(TRACE_ID_HEADER)));
+        // The caller's sampling decision wins; new traces are sampled locally
+        boolean sampled = spanRecorder != null && parent.map(TraceParent::sampled)
+            .orElseGet(() -> ThreadLocalRandom.current().nextDouble() < sampleRate);
+        
+        RequestTrace trace = spanRecorder != null 
+            ? RequestTrace.start(spanRecorder, traceId, parent.map(TraceParent::parentSpanId).orElse(null), sampled)
+            : null;
+        OpenSpan serverSpan = trace != null ? trace.open(request.getMethod(), SpanKind.SERVER) : OpenSpan.NOOP;
+        String spanId = serverSpan.isRecording() ? serverSpan.getSpanId() : TraceParent.randomSpanId();
         
         MDC.put(TRACE_ID_MDC_KEY, traceId);
+        // Identifies this server's handling of the request, e.g. when the trace id came from the caller
+        MDC.put(SPAN_ID_MDC_KEY, spanId);
         response.setHeader(TRACE_ID_HEADER, traceId);
         
         try {
             filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException ex) {
+            serverSpan.error(ex);
+            throw ex;
         } finally {
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            serverSpan.rename(request.getMethod() + " " + (route != null ? route : request.getRequestURI()));
+            serverSpan.tag("http.method", request.getMethod())
+                .tag("http.route", route)
+                .tag("http.status_code", response.getStatus());
+            serverSpan.close();
+            RequestTrace.clear();
             MDC.remove(TRACE_ID_MDC_KEY);
+            MDC.remove(SPAN_ID_MDC_KEY);
+        }
+    }
+    
+    private static String legacyTraceId(String header) {
+        if (header != null && LEGACY_TRACE_ID.matcher(header).matches()) {
+            String hex = header.replace("-", "").toLowerCase();
+            if (!hex.chars().allMatch(c -> c == '0')) {
+                return hex;
+            }
         }
+        return TraceParent.randomTraceId();
     }
-}
\ No newline at end of file
+}
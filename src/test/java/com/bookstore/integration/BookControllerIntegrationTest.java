@@ -142,6 +142,26 @@ class BookControllerIntegrationTest extends BaseIntegrationTest {
             .andExpect(jsonPath("$.data.title").value("Integration Test Book"));
     }
     
+    @Test
+    void getBook_WithTraceparent_ShouldContinueTraceAndRecordSpans() throws Exception {
+        BookDto created = createTestBook();
+        String traceId = "4bf92f3577b34da6a3ce929d0e0e4736";
+        
+        mockMvc.perform(get("/api/books/{id}", created.id())
+                .header("traceparent", "00-" + traceId + "-00f067aa0ba902b7-01")
+                .with(httpBasic("user", "user123")))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Trace-Id", traceId));
+        
+        mockMvc.perform(get("/actuator/traces/{traceId}", traceId)
+                .with(httpBasic("admin", "admin123")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].name").value("GET /api/books/{id}"))
+            .andExpect(jsonPath("$[0].kind").value("SERVER"))
+            .andExpect(jsonPath("$[0].children[*].name", hasItems("BookController.getBook", "json.serialize")))
+            .andExpect(jsonPath("$[0].children[0].children[0].name").value("BookServiceImpl.getBook"));
+    }
+    
     @Test
     void getBook_WhenNotExists_ShouldReturn404() throws Exception {
         UUID randomId = UUID.randomUUID();
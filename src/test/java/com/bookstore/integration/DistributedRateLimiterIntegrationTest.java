@@ -0,0 +1,95 @@
+package com.bookstore.integration;
+
+import com.bookstore.ratelimit.DistributedRateLimiter;
+import com.bookstore.ratelimit.RateLimitBucketStore;
+import com.bookstore.ratelimit.RateLimitDecision;
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DistributedRateLimiterIntegrationTest extends BaseIntegrationTest {
+
+    // Never consulted while the store is healthy
+    private static final Supplier<Bucket> NO_LOCAL_BUCKET = () -> {
+        throw new AssertionError("Local fallback used");
+    };
+
+    @Autowired
+    private DataSource dataSource;
+
+    private RateLimitBucketStore store;
+    private String key;
+
+    @BeforeEach
+    void setUp() {
+        store = new RateLimitBucketStore(dataSource, Duration.ofSeconds(1));
+        key = "client-" + UUID.randomUUID();
+    }
+
+    @Test
+    void limitIsSharedAcrossInstances() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DistributedRateLimiter nodeA = limiter(Duration.ofMinutes(1), 3, registry);
+        DistributedRateLimiter nodeB = limiter(Duration.ofMinutes(1), 3, registry);
+
+        int allowed = 0;
+        for (int i = 0; i < 15; i++) {
+            allowed += nodeA.tryConsume(key, 1, 10, NO_LOCAL_BUCKET).allowed() ? 1 : 0;
+            allowed += nodeB.tryConsume(key, 1, 10, NO_LOCAL_BUCKET).allowed() ? 1 : 0;
+        }
+
+        assertThat(allowed).isEqualTo(10);
+        // Prefetched batches and locally remembered rejections keep most requests off the database
+        assertThat(registry.get("ratelimit.store").timer().count()).isLessThanOrEqualTo(8);
+    }
+
+    @Test
+    void rejectionCarriesTimeUntilWindowResetsAndWindowResets() throws Exception {
+        DistributedRateLimiter limiter = limiter(Duration.ofSeconds(1), 1, new SimpleMeterRegistry());
+
+        assertThat(limiter.tryConsume(key, 1, 2, NO_LOCAL_BUCKET).allowed()).isTrue();
+        assertThat(limiter.tryConsume(key, 1, 2, NO_LOCAL_BUCKET).allowed()).isTrue();
+        RateLimitDecision rejected = limiter.tryConsume(key, 1, 2, NO_LOCAL_BUCKET);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.retryAfterSeconds()).isEqualTo(1);
+
+        Thread.sleep(1_100);
+
+        assertThat(limiter.tryConsume(key, 1, 2, NO_LOCAL_BUCKET).allowed()).isTrue();
+    }
+
+    @Test
+    void storeGrantsPartialBatchAtEndOfWindow() {
+        assertThat(store.acquire(key, 4, 5, Duration.ofMinutes(1)).granted()).isEqualTo(4);
+
+        RateLimitBucketStore.Grant partial = store.acquire(key, 4, 5, Duration.ofMinutes(1));
+        assertThat(partial.granted()).isEqualTo(1);
+        assertThat(partial.remaining()).isZero();
+        assertThat(partial.windowRemaining()).isPositive().isLessThanOrEqualTo(Duration.ofMinutes(1));
+
+        assertThat(store.acquire(key, 4, 5, Duration.ofMinutes(1)).granted()).isZero();
+    }
+
+    @Test
+    void expensiveRequestFetchesWhatItIsMissing() {
+        DistributedRateLimiter limiter = limiter(Duration.ofMinutes(1), 2, new SimpleMeterRegistry());
+
+        assertThat(limiter.tryConsume(key, 6, 10, NO_LOCAL_BUCKET).remaining()).isEqualTo(4);
+        assertThat(limiter.tryConsume(key, 6, 10, NO_LOCAL_BUCKET).allowed()).isFalse();
+        assertThat(limiter.tryConsume(key, 1, 10, NO_LOCAL_BUCKET).allowed()).isTrue();
+    }
+
+    private DistributedRateLimiter limiter(Duration period, long prefetch, SimpleMeterRegistry registry) {
+        return new DistributedRateLimiter(store, period, prefetch,
+            Duration.ofSeconds(5), Duration.ofSeconds(30), 1_000, registry);
+    }
+}
@@ -1,6 +1,7 @@
 package com.bookstore.integration;
 
 import com.bookstore.domain.Book;
+import com.bookstore.dto.CartReservationRequest;
 import com.bookstore.dto.InventoryAdjustmentDto;
 import com.bookstore.repository.BookRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -15,9 +16,13 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.oneOf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -89,4 +94,180 @@ class InventoryControllerIntegrationTest extends BaseIntegrationTest {
             .andExpect(jsonPath("$.type").value(containsString("invalid-inventory-adjustment")))
             .andExpect(jsonPath("$.title").value("Invalid Inventory Adjustment"));
     }
+
+    @Test
+    void reserveCart_AllLinesAvailable_ShouldReserveEveryLine() throws Exception {
+        Book first = saveBook("Cart Book One", 5);
+        Book second = saveBook("Cart Book Two", 3);
+
+        CartReservationRequest request = new CartReservationRequest(List.of(
+                new CartReservationRequest.Line(first.getId(), 2),
+                new CartReservationRequest.Line(second.getId(), 3),
+                new CartReservationRequest.Line(first.getId(), 1)
+        ));
+
+        mockMvc.perform(post("/api/inventory/reservations")
+                .with(httpBasic("user", "user123"))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.lines.length()").value(2))
+            .andExpect(jsonPath("$.lines[0].requestedQuantity").value(3))
+            .andExpect(jsonPath("$.lines[0].shortfall").value(0));
+
+        assertThat(bookRepository.findById(first.getId()).orElseThrow().getReservedQuantity()).isEqualTo(3);
+        assertThat(bookRepository.findById(second.getId()).orElseThrow().getReservedQuantity()).isEqualTo(3);
+    }
+
+    @Test
+    void reserveCart_OneLineShort_ShouldReserveNothingAndReportShortfall() throws Exception {
+        Book plenty = saveBook("Plenty Book", 10);
+        Book scarce = saveBook("Scarce Book", 1);
+
+        CartReservationRequest request = new CartReservationRequest(List.of(
+                new CartReservationRequest.Line(plenty.getId(), 4),
+                new CartReservationRequest.Line(scarce.getId(), 3)
+        ));
+
+        mockMvc.perform(post("/api/inventory/reservations")
+                .with(httpBasic("user", "user123"))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isConflict())
+            .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+            .andExpect(jsonPath("$.type").value(containsString("insufficient-inventory")))
+            .andExpect(jsonPath("$.lines[0].shortfall").value(0))
+            .andExpect(jsonPath("$.lines[1].shortfall").value(2));
+
+        assertThat(bookRepository.findById(plenty.getId()).orElseThrow().getReservedQuantity()).isZero();
+        assertThat(bookRepository.findById(scarce.getId()).orElseThrow().getReservedQuantity()).isZero();
+    }
+
+    @Test
+    void reserveCart_RepeatedLinesAboveLimit_ShouldBeRejectedWithoutReserving() throws Exception {
+        Book book = saveBook("Overflow Book", 10);
+
+        CartReservationRequest request = new CartReservationRequest(List.of(
+                new CartReservationRequest.Line(book.getId(), CartReservationRequest.MAX_QUANTITY),
+                new CartReservationRequest.Line(book.getId(), CartReservationRequest.MAX_QUANTITY)
+        ));
+
+        mockMvc.perform(post("/api/inventory/reservations")
+                .with(httpBasic("user", "user123"))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.type").value(containsString("invalid-cart-quantity")))
+            .andExpect(jsonPath("$.requestedQuantity").value(2 * CartReservationRequest.MAX_QUANTITY));
+
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getReservedQuantity()).isZero();
+    }
+
+    @Test
+    void reserveCart_LineAboveLimit_ShouldFailValidation() throws Exception {
+        Book book = saveBook("Huge Line Book", 10);
+
+        CartReservationRequest request = new CartReservationRequest(List.of(
+                new CartReservationRequest.Line(book.getId(), Integer.MAX_VALUE),
+                new CartReservationRequest.Line(book.getId(), 2)
+        ));
+
+        mockMvc.perform(post("/api/inventory/reservations")
+                .with(httpBasic("user", "user123"))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isBadRequest());
+
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getReservedQuantity()).isZero();
+    }
+
+    @Test
+    void getBooksNeedingRestock_ShouldReturnPagedItemsOrderedByShortfall() throws Exception {
+        Book worst = saveBook("Empty Shelf Book", 0);
+        worst.setReorderLevel(1000);
+        bookRepository.save(worst);
+        saveBook("Nearly Empty Book", 1);
+
+        mockMvc.perform(get("/api/inventory/restock-needed")
+                .with(httpBasic("admin", "admin123"))
+                .param("size", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.length()").value(1))
+            .andExpect(jsonPath("$.data[0].id").value(worst.getId().toString()))
+            .andExpect(jsonPath("$.data[0].shortfall").value(1000))
+            .andExpect(jsonPath("$.meta.total").value(greaterThanOrEqualTo(2)));
+    }
+
+    @Test
+    void getBooksNeedingRestock_ShouldStayWithinQueryBudget() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            saveBook("Budget Book " + i, 0);
+        }
+        bookRepository.flush();
+
+        // A page query plus at most a count query, however many books need restocking
+        mockMvc.perform(get("/api/inventory/restock-needed")
+                .with(httpBasic("admin", "admin123")))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-DB-Queries", oneOf("1", "2")));
+    }
+
+    @Test
+    void getBooksNeedingRestock_InvalidSortField_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/inventory/restock-needed")
+                .with(httpBasic("admin", "admin123"))
+                .param("sort", "price,asc"))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON));
+    }
+
+    @Test
+    void reserveInventory_SameIdempotencyKey_ShouldReserveOnceAndReplay() throws Exception {
+        Book book = saveBook("Idempotent Book", 5);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/inventory/{bookId}/reserve", book.getId())
+                    .with(httpBasic("user", "user123"))
+                    .with(csrf())
+                    .header("Idempotency-Key", "reserve-once")
+                    .param("quantity", "2"))
+                .andExpect(status().isNoContent());
+        }
+
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getReservedQuantity()).isEqualTo(2);
+
+        mockMvc.perform(post("/api/inventory/{bookId}/reserve", book.getId())
+                .with(httpBasic("user", "user123"))
+                .with(csrf())
+                .header("Idempotency-Key", "reserve-once")
+                .param("quantity", "3"))
+            .andExpect(status().isUnprocessableEntity())
+            .andExpect(jsonPath("$.type").value(containsString("idempotency-key-reused")));
+    }
+
+    @Test
+    void inventoryStatsEndpoint_ShouldReturnAggregateTotals() throws Exception {
+        saveBook("Stats Book", 4);
+        bookRepository.flush();
+
+        mockMvc.perform(get("/actuator/inventory-stats")
+                .with(httpBasic("admin", "admin123")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalTitles").value(greaterThanOrEqualTo(1)))
+            .andExpect(jsonPath("$.unitsInStock").value(greaterThanOrEqualTo(4)))
+            .andExpect(jsonPath("$.valuationAtPrice").exists())
+            .andExpect(jsonPath("$.computedAt").exists());
+    }
+
+    private Book saveBook(String title, int quantityInStock) {
+        return bookRepository.save(Book.builder()
+                .title(title)
+                .price(new BigDecimal("9.99"))
+                .quantityInStock(quantityInStock)
+                .build());
+    }
 }
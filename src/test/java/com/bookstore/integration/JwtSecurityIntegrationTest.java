@@ -1,5 +1,6 @@
 package com.bookstore.integration;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,9 +9,12 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -50,12 +54,75 @@ class JwtSecurityIntegrationTest extends BaseIntegrationTest {
             .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    void jwks_ShouldPublishPublicSigningKeyWithoutAuthentication() throws Exception {
+        String token = obtainAccessToken("user", "user123");
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))),
+            StandardCharsets.UTF_8);
+        String keyId = objectMapper.readTree(header).get("kid").asText();
+
+        String response = mockMvc.perform(get("/.well-known/jwks.json"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        JsonNode keys = objectMapper.readTree(response).get("keys");
+        assertEquals(1, keys.size());
+        assertEquals(keyId, keys.get(0).get("kid").asText());
+        assertEquals("RSA", keys.get(0).get("kty").asText());
+        assertFalse(keys.get(0).has("d"), "Private exponent must not be published");
+    }
+
+    @Test
+    void refresh_ShouldRotateTokensAndRevokeFamilyOnReuse() throws Exception {
+        JsonNode login = login("user", "user123");
+        String firstRefreshToken = login.get("refreshToken").asText();
+
+        JsonNode refreshed = refresh(firstRefreshToken, 200);
+        String secondRefreshToken = refreshed.get("refreshToken").asText();
+
+        mockMvc.perform(get("/api/books")
+                .header("Authorization", "Bearer " + refreshed.get("accessToken").asText()))
+            .andExpect(status().isOk());
+
+        // Replaying a used token is treated as theft: it and its successor stop working
+        refresh(firstRefreshToken, 401);
+        refresh(secondRefreshToken, 401);
+    }
+
+    @Test
+    void logout_ShouldRevokeAccessAndRefreshTokens() throws Exception {
+        JsonNode login = login("user", "user123");
+        String accessToken = login.get("accessToken").asText();
+        String refreshToken = login.get("refreshToken").asText();
+
+        mockMvc.perform(get("/api/books")
+                .header("Authorization", "Bearer " + accessToken))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/logout")
+                .header("Authorization", "Bearer " + accessToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+            .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/books")
+                .header("Authorization", "Bearer " + accessToken))
+            .andExpect(status().isUnauthorized());
+        refresh(refreshToken, 401);
+    }
+
     @Test
     void shouldOnlyHaveOneSecurityFilterChain() {
         assertEquals(1, securityFilterChains.size(), "Only one SecurityFilterChain should be active");
     }
 
     private String obtainAccessToken(String username, String password) throws Exception {
+        return login(username, password).get("accessToken").asText();
+    }
+
+    private JsonNode login(String username, String password) throws Exception {
         String response = mockMvc.perform(post("/api/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
@@ -64,6 +131,18 @@ class JwtSecurityIntegrationTest extends BaseIntegrationTest {
             .getResponse()
             .getContentAsString();
 
-        return objectMapper.readTree(response).get("accessToken").asText();
+        return objectMapper.readTree(response);
+    }
+
+    private JsonNode refresh(String refreshToken, int expectedStatus) throws Exception {
+        String response = mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+            .andExpect(status().is(expectedStatus))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        return objectMapper.readTree(response);
     }
 }
@@ -10,6 +10,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -55,6 +56,35 @@ class SecurityBasicIntegrationTest extends BaseIntegrationTest {
             .andExpect(status().isOk());
     }
     
+    @Test
+    void accessDiagnosticActuatorEndpoints_WithUserCredentials_ShouldReturn403() throws Exception {
+        for (String endpoint : List.of("/actuator/slow-queries", "/actuator/slow-requests", "/actuator/traces",
+                "/actuator/jfr")) {
+            mockMvc.perform(get(endpoint)
+                    .with(httpBasic("user", "user123")))
+                .andExpect(status().isForbidden());
+        }
+        mockMvc.perform(delete("/actuator/slow-queries")
+                .with(httpBasic("user", "user123")))
+            .andExpect(status().isForbidden());
+    }
+    
+    @Test
+    void accessMetricsEndpoints_WithUserCredentials_ShouldReturn200() throws Exception {
+        for (String endpoint : List.of("/actuator/metrics", "/actuator/prometheus")) {
+            mockMvc.perform(get(endpoint)
+                    .with(httpBasic("user", "user123")))
+                .andExpect(status().isOk());
+        }
+    }
+    
+    @Test
+    void accessSlowQueries_WithAdminCredentials_ShouldReturn200() throws Exception {
+        mockMvc.perform(get("/actuator/slow-queries")
+                .with(httpBasic("admin", "admin123")))
+            .andExpect(status().isOk());
+    }
+    
     @Test
     void accessSwaggerUI_WithoutCredentials_ShouldReturn200() throws Exception {
         mockMvc.perform(get("/v3/api-docs"))
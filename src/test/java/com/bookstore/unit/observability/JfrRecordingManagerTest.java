@@ -0,0 +1,77 @@
+package com.bookstore.unit.observability;
+
+import com.bookstore.observability.jfr.JfrRecordingManager;
+import com.bookstore.observability.jfr.JfrRecordingManager.RecordingInfo;
+import com.bookstore.observability.jfr.RateLimitRejectedEvent;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JfrRecordingManagerTest {
+
+    @TempDir
+    Path dumpDirectory;
+
+    private JfrRecordingManager manager;
+    private Long recordingId;
+
+    @BeforeEach
+    void setUp() {
+        manager = new JfrRecordingManager(false, "default", Duration.ofMinutes(5), DataSize.ofMegabytes(16), dumpDirectory);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (recordingId != null) {
+            manager.close(recordingId);
+        }
+    }
+
+    @Test
+    void recordsCustomEventsAndDumpsThem() throws Exception {
+        RecordingInfo started = manager.start("default", null, "test-recording");
+        recordingId = started.id();
+        assertThat(started.state()).isEqualTo("RUNNING");
+        assertThat(started.profile()).isEqualTo("default");
+
+        RateLimitRejectedEvent.emit("203.0.113.7", "/api/books", 60);
+        assertThat(manager.stop(recordingId)).get().extracting(RecordingInfo::state).isEqualTo("STOPPED");
+
+        Path dump = manager.dump(recordingId).orElseThrow();
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+            .filter(event -> event.getEventType().getName().equals("com.bookstore.RateLimitRejected"))
+            .toList();
+        assertThat(events).singleElement()
+            .satisfies(event -> assertThat(event.getString("client")).isEqualTo("203.0.113.7"));
+    }
+
+    @Test
+    void rejectsUnknownProfile() {
+        assertThatThrownBy(() -> manager.start("no-such-profile", null, null))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsProfilePaths() {
+        assertThatThrownBy(() -> manager.start("../../etc/settings", null, null))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void unknownRecordingIsReportedAsAbsent() throws Exception {
+        assertThat(manager.stop(Long.MAX_VALUE)).isEmpty();
+        assertThat(manager.dump(Long.MAX_VALUE)).isEmpty();
+        assertThat(manager.close(Long.MAX_VALUE)).isFalse();
+    }
+}
@@ -0,0 +1,73 @@
+package com.bookstore.unit.observability;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import com.bookstore.observability.LoggerRateLimitFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoggerRateLimitFilterTest {
+
+    private LoggerContext context;
+    private LoggerRateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.DEBUG);
+        filter = new LoggerRateLimitFilter();
+        filter.setContext(context);
+        filter.setLoggerPrefix("com.bookstore.service");
+        filter.setEventsPerSecond(3);
+        filter.start();
+    }
+
+    @Test
+    void deniesInfoEventsOverTheBudget() {
+        Logger logger = context.getLogger("com.bookstore.service.impl.InventoryServiceImpl");
+
+        int accepted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (decide(logger, Level.INFO) == FilterReply.NEUTRAL) {
+                accepted++;
+            }
+        }
+
+        // A second boundary in the middle of the loop can grant one extra window
+        assertThat(accepted).isBetween(3, 6);
+        assertThat(filter.getSuppressedCount()).isEqualTo(10 - accepted);
+    }
+
+    @Test
+    void alwaysPassesWarningsAndOtherLoggers() {
+        Logger sampled = context.getLogger("com.bookstore.service.impl.InventoryServiceImpl");
+        Logger other = context.getLogger("com.bookstore.controller.BookController");
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(decide(sampled, Level.WARN)).isEqualTo(FilterReply.NEUTRAL);
+            assertThat(decide(other, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+        }
+        assertThat(filter.getSuppressedCount()).isZero();
+    }
+
+    @Test
+    void disabledEventsDoNotUseTheBudget() {
+        Logger logger = context.getLogger("com.bookstore.service.impl.InventoryServiceImpl");
+        logger.setLevel(Level.INFO);
+
+        for (int i = 0; i < 10; i++) {
+            decide(logger, Level.DEBUG);
+        }
+
+        assertThat(decide(logger, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(filter.getSuppressedCount()).isZero();
+    }
+
+    private FilterReply decide(Logger logger, Level level) {
+        return filter.decide(null, logger, level, "event", null, null);
+    }
+}
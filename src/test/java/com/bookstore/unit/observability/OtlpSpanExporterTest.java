@@ -0,0 +1,101 @@
+package com.bookstore.unit.observability;
+
+import com.bookstore.observability.tracing.OpenSpan;
+import com.bookstore.observability.tracing.OtlpSpanExporter;
+import com.bookstore.observability.tracing.RequestTrace;
+import com.bookstore.observability.tracing.SpanKind;
+import com.bookstore.observability.tracing.SpanRecorder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OtlpSpanExporterTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String REMOTE_PARENT = "00f067aa0ba902b7";
+
+    private final BlockingQueue<JsonNode> received = new LinkedBlockingQueue<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private HttpServer collector;
+    private OtlpSpanExporter exporter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Stand-in for an OpenTelemetry collector's OTLP/HTTP receiver
+        collector = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        collector.createContext("/v1/traces", exchange -> {
+            received.add(objectMapper.readTree(exchange.getRequestBody()));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        collector.start();
+        URI endpoint = URI.create("http://127.0.0.1:" + collector.getAddress().getPort() + "/v1/traces");
+        exporter = new OtlpSpanExporter(endpoint, "bookstore-api", 100, 50, Duration.ofHours(1), Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        exporter.close();
+        collector.stop(0);
+        RequestTrace.clear();
+    }
+
+    @Test
+    void exportsNestedSpansOfOneRequest() throws Exception {
+        SpanRecorder recorder = new SpanRecorder(100, List.of(exporter));
+        RequestTrace trace = RequestTrace.start(recorder, TRACE_ID, REMOTE_PARENT, true);
+        try (OpenSpan server = trace.open("GET /api/books/{id}", SpanKind.SERVER)) {
+            try (OpenSpan service = RequestTrace.span("BookServiceImpl.getBook", SpanKind.INTERNAL)) {
+                service.tag("layer", "service");
+            }
+        }
+        RequestTrace.clear();
+
+        exporter.flush();
+
+        JsonNode request = received.poll(5, TimeUnit.SECONDS);
+        assertThat(request).isNotNull();
+        JsonNode resourceSpans = request.get("resourceSpans").get(0);
+        assertThat(resourceSpans.at("/resource/attributes/0/value/stringValue").asText()).isEqualTo("bookstore-api");
+        JsonNode spans = resourceSpans.at("/scopeSpans/0/spans");
+        assertThat(spans).hasSize(2);
+
+        JsonNode service = spans.get(0);
+        JsonNode server = spans.get(1);
+        assertThat(server.get("name").asText()).isEqualTo("GET /api/books/{id}");
+        assertThat(server.get("kind").asInt()).isEqualTo(2);
+        assertThat(server.get("traceId").asText()).isEqualTo(TRACE_ID);
+        assertThat(server.get("parentSpanId").asText()).isEqualTo(REMOTE_PARENT);
+        assertThat(service.get("parentSpanId").asText()).isEqualTo(server.get("spanId").asText());
+        assertThat(service.at("/attributes/0/key").asText()).isEqualTo("layer");
+        assertThat(Long.parseLong(server.get("endTimeUnixNano").asText()))
+            .isGreaterThanOrEqualTo(Long.parseLong(server.get("startTimeUnixNano").asText()));
+    }
+
+    @Test
+    void recordsNothingForUnsampledTraces() {
+        SpanRecorder recorder = new SpanRecorder(100, List.of(exporter));
+        RequestTrace trace = RequestTrace.start(recorder, TRACE_ID, REMOTE_PARENT, false);
+        try (OpenSpan server = trace.open("GET /api/books", SpanKind.SERVER)) {
+            assertThat(server.isRecording()).isFalse();
+        }
+
+        exporter.flush();
+
+        assertThat(recorder.findTrace(TRACE_ID)).isEmpty();
+        assertThat(received).isEmpty();
+    }
+}
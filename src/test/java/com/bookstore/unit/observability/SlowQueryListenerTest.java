@@ -0,0 +1,107 @@
+package com.bookstore.unit.observability;
+
+import com.bookstore.observability.JdbcExecution;
+import com.bookstore.observability.SlowQueryListener;
+import com.bookstore.observability.SlowQueryStore;
+import com.bookstore.observability.SlowQueryStore.SlowQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SlowQueryListenerTest {
+
+    private static final String SEARCH_SQL = "select b.id from books b where lower(b.title) like ? limit ?";
+
+    private SlowQueryStore store;
+    private DataSource dataSource;
+    private Connection connection;
+    private PreparedStatement explainStatement;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new SlowQueryStore(10);
+        dataSource = mock(DataSource.class);
+        connection = mock(Connection.class);
+        explainStatement = mock(PreparedStatement.class);
+        ResultSet plan = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        when(connection.prepareStatement(anyString())).thenReturn(explainStatement);
+        when(explainStatement.executeQuery()).thenReturn(plan);
+        when(plan.next()).thenReturn(true, false);
+        when(plan.getString(1)).thenReturn("Seq Scan on books b (actual time=0.1..250.0 rows=3 loops=1)");
+    }
+
+    @Test
+    void recordsSlowStatementWithParametersAndCapturesPlan() throws Exception {
+        try (SlowQueryListener listener = listener(1.0)) {
+            listener.afterExecute(execution(SEARCH_SQL, 250, List.of("%dune%", 20)));
+
+            // Closing the connection is the last step of plan capture
+            verify(connection, timeout(2_000)).close();
+        }
+
+        verify(connection).prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + SEARCH_SQL);
+        verify(explainStatement).setObject(1, "%dune%");
+        verify(explainStatement).setObject(2, 20);
+        verify(connection).setReadOnly(true);
+        verify(connection).rollback();
+        assertThat(store.snapshot()).singleElement().satisfies(query -> {
+            assertThat(query.sql()).isEqualTo(SEARCH_SQL);
+            assertThat(query.parameters()).containsExactly("%dune%", "20");
+            assertThat(query.durationMs()).isEqualTo(250);
+            assertThat(query.plan()).contains("Seq Scan on books");
+        });
+    }
+
+    @Test
+    void ignoresFastStatements() throws Exception {
+        try (SlowQueryListener listener = listener(1.0)) {
+            listener.afterExecute(execution(SEARCH_SQL, 50, List.of("%dune%", 20)));
+        }
+
+        assertThat(store.snapshot()).isEmpty();
+        verify(dataSource, never()).getConnection();
+    }
+
+    @Test
+    void neverExplainsLockingOrWritingStatements() throws Exception {
+        try (SlowQueryListener listener = listener(1.0)) {
+            listener.afterExecute(execution("select * from books where id = ? for update", 300, List.of("id")));
+            listener.afterExecute(execution("update books set view_count = view_count + 1 where id = ?", 300, 
+                Arrays.asList((Object) null)));
+        }
+
+        assertThat(store.snapshot())
+            .extracting(SlowQuery::parameters)
+            .containsExactlyInAnyOrder(List.of("id"), List.of("null"));
+        verify(dataSource, never()).getConnection();
+    }
+
+    private SlowQueryListener listener(double sampleRate) {
+        return new SlowQueryListener(store, () -> dataSource, Duration.ofMillis(100), sampleRate,
+            Duration.ofSeconds(5), Duration.ofMinutes(10), 200);
+    }
+
+    private static JdbcExecution execution(String sql, long millis, List<Object> parameters) {
+        return new JdbcExecution(sql, TimeUnit.MILLISECONDS.toNanos(millis), -1, false, null, parameters);
+    }
+}
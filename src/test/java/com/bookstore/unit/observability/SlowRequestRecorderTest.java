@@ -0,0 +1,48 @@
+package com.bookstore.unit.observability;
+
+import com.bookstore.observability.SlowRequestRecorder;
+import com.bookstore.observability.SlowRequestRecorder.SlowRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowRequestRecorderTest {
+
+    @Test
+    void keepsOnlyTheMostRecentEntriesSlowestFirst() {
+        SlowRequestRecorder recorder = new SlowRequestRecorder(Duration.ofMillis(100), 3);
+
+        for (long duration : new long[] {900, 150, 400, 200}) {
+            recorder.record(slowRequest(duration));
+        }
+
+        assertThat(recorder.snapshot())
+            .extracting(SlowRequest::durationMs)
+            .containsExactly(400L, 200L, 150L);
+    }
+
+    @Test
+    void appliesThresholdInclusively() {
+        SlowRequestRecorder recorder = new SlowRequestRecorder(Duration.ofMillis(100), 3);
+
+        assertThat(recorder.isSlow(Duration.ofMillis(99))).isFalse();
+        assertThat(recorder.isSlow(Duration.ofMillis(100))).isTrue();
+    }
+
+    @Test
+    void clearEmptiesTheRing() {
+        SlowRequestRecorder recorder = new SlowRequestRecorder(Duration.ofMillis(100), 3);
+        recorder.record(slowRequest(500));
+
+        recorder.clear();
+
+        assertThat(recorder.snapshot()).isEmpty();
+    }
+
+    private static SlowRequest slowRequest(long durationMs) {
+        return new SlowRequest("trace", "GET", "/api/books/{id}", 200, durationMs, 3, 3, 10, Instant.now());
+    }
+}
@@ -0,0 +1,53 @@
+package com.bookstore.unit.observability;
+
+import com.bookstore.observability.tracing.TraceParent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TraceParentTest {
+
+    @Test
+    void parsesSampledHeader() {
+        assertThat(TraceParent.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01"))
+            .contains(new TraceParent("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7", true));
+    }
+
+    @Test
+    void readsSampledFlagFromLowestBit() {
+        assertThat(TraceParent.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00"))
+            .hasValueSatisfying(parent -> assertThat(parent.sampled()).isFalse());
+    }
+
+    @Test
+    void acceptsExtraFieldsFromLaterVersions() {
+        assertThat(TraceParent.parse("01-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-extra")).isPresent();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "",
+        "garbage",
+        "ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01",
+        "00-00000000000000000000000000000000-00f067aa0ba902b7-01",
+        "00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000000-01",
+        "00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01",
+        "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-extra"
+    })
+    void rejectsInvalidHeaders(String header) {
+        assertThat(TraceParent.parse(header)).isEmpty();
+    }
+
+    @Test
+    void formatsRoundTrip() {
+        String traceId = TraceParent.randomTraceId();
+        String spanId = TraceParent.randomSpanId();
+
+        assertThat(traceId).hasSize(32);
+        assertThat(spanId).hasSize(16);
+        assertThat(TraceParent.parse(TraceParent.format(traceId, spanId, true)))
+            .contains(new TraceParent(traceId, spanId, true));
+    }
+}
@@ -0,0 +1,54 @@
+package com.bookstore.unit.ratelimit;
+
+import com.bookstore.ratelimit.ClientIpResolver;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientIpResolverTest {
+
+    private final ClientIpResolver resolver = new ClientIpResolver(List.of("10.0.0.0/8", "192.168.1.5"));
+
+    @Test
+    void forwardingHeadersFromUntrustedClientsAreIgnored() {
+        MockHttpServletRequest request = request("203.0.113.7");
+        request.addHeader("X-Forwarded-For", "198.51.100.1");
+        request.addHeader("X-Real-IP", "198.51.100.2");
+
+        assertThat(resolver.resolve(request)).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void forwardedForIsReadFromTheRightSkippingTrustedHops() {
+        MockHttpServletRequest request = request("10.1.2.3");
+        request.addHeader("X-Forwarded-For", "1.1.1.1, 203.0.113.7, 192.168.1.5");
+
+        // 1.1.1.1 was written by the client itself and must not be believed
+        assertThat(resolver.resolve(request)).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void realIpIsUsedFromTrustedProxyWithoutForwardedFor() {
+        MockHttpServletRequest request = request("10.1.2.3");
+        request.addHeader("X-Real-IP", "203.0.113.7");
+
+        assertThat(resolver.resolve(request)).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void headersAreIgnoredWhenNoProxyIsTrusted() {
+        MockHttpServletRequest request = request("10.1.2.3");
+        request.addHeader("X-Forwarded-For", "203.0.113.7");
+
+        assertThat(new ClientIpResolver(List.of()).resolve(request)).isEqualTo("10.1.2.3");
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
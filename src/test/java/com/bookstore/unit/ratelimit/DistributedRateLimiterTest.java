@@ -0,0 +1,94 @@
+package com.bookstore.unit.ratelimit;
+
+import com.bookstore.ratelimit.DistributedRateLimiter;
+import com.bookstore.ratelimit.RateLimitBucketStore;
+import com.bookstore.ratelimit.RateLimitDecision;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DistributedRateLimiterTest {
+
+    private final RateLimitBucketStore store = mock(RateLimitBucketStore.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Bucket localBucket = Bucket.builder()
+        .addLimit(Bandwidth.classic(1, Refill.intervally(1, Duration.ofMinutes(1))))
+        .build();
+
+    @Test
+    void prefetchedTokensAreSpentWithoutStoreCalls() {
+        when(store.acquire(anyString(), anyLong(), anyLong(), any()))
+            .thenReturn(new RateLimitBucketStore.Grant(5, 95, Duration.ofSeconds(30)));
+        DistributedRateLimiter limiter = limiter(Duration.ofSeconds(1));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryConsume("client", 1, 100, () -> localBucket).allowed()).isTrue();
+        }
+
+        verify(store, times(1)).acquire("client", 5, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void requestCostingMoreThanPrefetchFetchesTheDifference() {
+        when(store.acquire(anyString(), anyLong(), anyLong(), any()))
+            .thenReturn(new RateLimitBucketStore.Grant(5, 95, Duration.ofSeconds(30)))
+            .thenReturn(new RateLimitBucketStore.Grant(15, 80, Duration.ofSeconds(30)));
+        DistributedRateLimiter limiter = limiter(Duration.ofSeconds(1));
+
+        assertThat(limiter.tryConsume("client", 1, 100, () -> localBucket).remaining()).isEqualTo(99);
+        assertThat(limiter.tryConsume("client", 19, 100, () -> localBucket).remaining()).isEqualTo(80);
+
+        verify(store).acquire("client", 15, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void failingStoreFallsBackToLocalBucketsForCooldown() {
+        when(store.acquire(anyString(), anyLong(), anyLong(), any()))
+            .thenThrow(new QueryTimeoutException("statement timeout"));
+        DistributedRateLimiter limiter = limiter(Duration.ofSeconds(1));
+
+        RateLimitDecision first = limiter.tryConsume("client", 1, 100, () -> localBucket);
+        RateLimitDecision second = limiter.tryConsume("client", 1, 100, () -> localBucket);
+
+        assertThat(first.allowed()).isTrue();
+        assertThat(second.allowed()).isFalse();
+        assertThat(limiter.isInFallback()).isTrue();
+        verify(store, times(1)).acquire(anyString(), anyLong(), anyLong(), any());
+        assertThat(registry.get("ratelimit.store.fallbacks").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void slowStoreAnswerIsUsedButLaterRequestsGoLocal() {
+        when(store.acquire(anyString(), anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return new RateLimitBucketStore.Grant(1, 99, Duration.ofSeconds(30));
+        });
+        DistributedRateLimiter limiter = limiter(Duration.ofMillis(5));
+
+        assertThat(limiter.tryConsume("client", 1, 100, () -> localBucket).allowed()).isTrue();
+        assertThat(limiter.isInFallback()).isTrue();
+
+        assertThat(limiter.tryConsume("other", 1, 100, () -> localBucket).allowed()).isTrue();
+        assertThat(localBucket.getAvailableTokens()).isZero();
+        verify(store, times(1)).acquire(anyString(), anyLong(), anyLong(), any());
+    }
+
+    private DistributedRateLimiter limiter(Duration slowThreshold) {
+        return new DistributedRateLimiter(store, Duration.ofMinutes(1), 5,
+            slowThreshold, Duration.ofSeconds(30), 1_000, registry);
+    }
+}
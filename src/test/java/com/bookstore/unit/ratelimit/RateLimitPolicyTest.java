@@ -0,0 +1,70 @@
+package com.bookstore.unit.ratelimit;
+
+import com.bookstore.ratelimit.RateLimitPolicy;
+import com.bookstore.ratelimit.RateLimitProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitPolicyTest {
+
+    private final RateLimitPolicy policy = new RateLimitPolicy(new RateLimitProperties(
+        Duration.ofMinutes(1),
+        Map.of("anonymous", 100L, "user", 300L, "admin", 1000L),
+        List.of(
+            new RateLimitProperties.EndpointCost("POST", "/api/inventory/bulk-adjust", 50),
+            new RateLimitProperties.EndpointCost("", "/api/books", 5),
+            new RateLimitProperties.EndpointCost("GET", "/api/inventory/restock-needed/export", 500)),
+        List.of()));
+
+    @Test
+    void anonymousClientsAreKeyedByAddress() {
+        RateLimitPolicy.RateLimitTarget target = policy.resolve(request("GET", "/api/books/1"), null);
+
+        assertThat(target.key()).isEqualTo("203.0.113.7");
+        assertThat(target.capacity()).isEqualTo(100);
+        assertThat(target.cost()).isEqualTo(1);
+    }
+
+    @Test
+    void anonymousAuthenticationIsTreatedAsAnonymous() {
+        var anonymous = new AnonymousAuthenticationToken("key", "anonymousUser",
+            AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+        assertThat(policy.resolve(request("GET", "/api/books/1"), anonymous).key()).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void principalsAreKeyedByNameAndGetTheirLargestTier() {
+        var admin = UsernamePasswordAuthenticationToken.authenticated("alice", null,
+            AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"));
+
+        RateLimitPolicy.RateLimitTarget target = policy.resolve(request("GET", "/api/books/1"), admin);
+
+        assertThat(target.key()).startsWith("user:alice");
+        assertThat(target.clientIp()).isEqualTo("203.0.113.7");
+        assertThat(target.capacity()).isEqualTo(1000);
+    }
+
+    @Test
+    void firstMatchingCostRuleAppliesAndIsCappedAtCapacity() {
+        assertThat(policy.resolve(request("GET", "/api/books"), null).cost()).isEqualTo(5);
+        assertThat(policy.resolve(request("POST", "/api/inventory/bulk-adjust"), null).cost()).isEqualTo(50);
+        assertThat(policy.resolve(request("GET", "/api/inventory/bulk-adjust"), null).cost()).isEqualTo(1);
+        assertThat(policy.resolve(request("GET", "/api/inventory/restock-needed/export"), null).cost()).isEqualTo(100);
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr("203.0.113.7");
+        return request;
+    }
+}
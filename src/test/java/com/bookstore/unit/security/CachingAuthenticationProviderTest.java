@@ -0,0 +1,110 @@
+package com.bookstore.unit.security;
+
+import com.bookstore.security.CachingAuthenticationProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingAuthenticationProviderTest {
+
+    private final AtomicInteger hashChecks = new AtomicInteger();
+    private PasswordEncoder passwordEncoder;
+    private InMemoryUserDetailsManager users;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        passwordEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return bcrypt.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                hashChecks.incrementAndGet();
+                return bcrypt.matches(rawPassword, encodedPassword);
+            }
+        };
+        users = new InMemoryUserDetailsManager(user("secret", true));
+        DaoAuthenticationProvider dao = new DaoAuthenticationProvider(passwordEncoder);
+        dao.setUserDetailsService(users);
+        provider = new CachingAuthenticationProvider(dao, users, Duration.ofMinutes(5), 100);
+    }
+
+    @Test
+    void repeatedLoginSkipsPasswordHashing() {
+        Authentication first = provider.authenticate(credentials("secret"));
+        Authentication second = provider.authenticate(credentials("secret"));
+
+        assertThat(first.isAuthenticated()).isTrue();
+        assertThat(second.isAuthenticated()).isTrue();
+        assertThat(second.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+        assertThat(hashChecks).hasValue(1);
+    }
+
+    @Test
+    void failedLoginIsNeverCached() {
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> provider.authenticate(credentials("wrong")))
+                .isInstanceOf(BadCredentialsException.class);
+        }
+
+        assertThat(hashChecks).hasValue(2);
+        assertThat(provider.getCache().estimatedSize()).isZero();
+    }
+
+    @Test
+    void passwordChangeInvalidatesCachedVerification() {
+        provider.authenticate(credentials("secret"));
+
+        users.updateUser(user("rotated", true));
+
+        assertThatThrownBy(() -> provider.authenticate(credentials("secret")))
+            .isInstanceOf(BadCredentialsException.class);
+        assertThat(provider.authenticate(credentials("rotated")).isAuthenticated()).isTrue();
+    }
+
+    @Test
+    void disabledAccountIsRejectedOnCacheHit() {
+        provider.authenticate(credentials("secret"));
+        String currentHash = users.loadUserByUsername("reader").getPassword();
+
+        users.updateUser(User.withUserDetails(users.loadUserByUsername("reader"))
+            .password(currentHash)
+            .disabled(true)
+            .build());
+
+        assertThatThrownBy(() -> provider.authenticate(credentials("secret")))
+            .isInstanceOf(DisabledException.class);
+        assertThat(hashChecks).hasValue(1);
+    }
+
+    private UserDetails user(String password, boolean enabled) {
+        return User.withUsername("reader")
+            .password(passwordEncoder.encode(password))
+            .roles("USER")
+            .disabled(!enabled)
+            .build();
+    }
+
+    private static UsernamePasswordAuthenticationToken credentials(String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated("reader", password);
+    }
+}
@@ -0,0 +1,122 @@
+package com.bookstore.unit.security;
+
+import com.bookstore.security.CachingGrantedAuthoritiesConverter;
+import com.bookstore.security.CachingJwtDecoder;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingJwtDecoderTest {
+
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    @Test
+    void repeatedTokenIsVerifiedOnce() {
+        CachingJwtDecoder decoder = decoder(Duration.ofHours(1));
+
+        Jwt first = decoder.decode("token-a");
+        Jwt second = decoder.decode("token-a");
+
+        assertThat(second).isSameAs(first);
+        assertThat(verifications).hasValue(1);
+    }
+
+    @Test
+    void distinctTokensAreVerifiedSeparately() {
+        CachingJwtDecoder decoder = decoder(Duration.ofHours(1));
+
+        Jwt first = decoder.decode("token-a");
+        Jwt second = decoder.decode("token-b");
+
+        assertThat(second.getSubject()).isEqualTo("token-b");
+        assertThat(first.getSubject()).isEqualTo("token-a");
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    void tokensDifferingOnlyInNonAsciiCharactersAreVerifiedSeparately() {
+        CachingJwtDecoder decoder = decoder(Duration.ofHours(1));
+
+        decoder.decode("token-\u00e9");
+        Jwt second = decoder.decode("token-\u00e8");
+
+        assertThat(second.getSubject()).isEqualTo("token-\u00e8");
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    void tokenExpiringWithinMarginIsNotCached() {
+        CachingJwtDecoder decoder = decoder(Duration.ofSeconds(2));
+
+        decoder.decode("token-a");
+        decoder.decode("token-a");
+
+        assertThat(verifications).hasValue(2);
+        assertThat(decoder.getCache().estimatedSize()).isZero();
+    }
+
+    @Test
+    void cacheDoesNotHoldRawTokens() {
+        CachingJwtDecoder decoder = decoder(Duration.ofHours(1));
+
+        decoder.decode("token-a");
+
+        assertThat(decoder.getCache().asMap().keySet()).singleElement()
+            .satisfies(key -> assertThat(key).doesNotContain("token-a").hasSize(64));
+    }
+
+    @Test
+    void rejectedTokenIsNotCached() {
+        JwtDecoder rejecting = token -> {
+            verifications.incrementAndGet();
+            throw new BadJwtException("bad signature");
+        };
+        CachingJwtDecoder decoder = new CachingJwtDecoder(rejecting, 100, Duration.ofSeconds(5));
+
+        assertThatThrownBy(() -> decoder.decode("token-a")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("token-a")).isInstanceOf(BadJwtException.class);
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    void authoritiesAreConvertedOncePerDecodedToken() {
+        CachingJwtDecoder decoder = decoder(Duration.ofHours(1));
+        AtomicInteger conversions = new AtomicInteger();
+        CachingGrantedAuthoritiesConverter converter = new CachingGrantedAuthoritiesConverter(jwt -> {
+            conversions.incrementAndGet();
+            return List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        }, 100);
+
+        Collection<GrantedAuthority> first = converter.convert(decoder.decode("token-a"));
+        Collection<GrantedAuthority> second = converter.convert(decoder.decode("token-a"));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(conversions).hasValue(1);
+    }
+
+    private CachingJwtDecoder decoder(Duration lifetime) {
+        JwtDecoder verifying = token -> {
+            verifications.incrementAndGet();
+            Instant now = Instant.now();
+            return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject(token)
+                .issuedAt(now)
+                .expiresAt(now.plus(lifetime))
+                .build();
+        };
+        return new CachingJwtDecoder(verifying, 100, Duration.ofSeconds(5));
+    }
+}
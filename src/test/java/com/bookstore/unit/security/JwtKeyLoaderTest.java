@@ -0,0 +1,155 @@
+package com.bookstore.unit.security;
+
+import com.bookstore.security.JwtAlgorithm;
+import com.bookstore.security.JwtKeyLoader;
+import com.nimbusds.jose.jwk.JWK;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtKeyLoaderTest {
+
+    private static KeyPair keyPair;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void generateKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+    }
+
+    @Test
+    void signingKeyFromPemFileDerivesStableKeyId() throws Exception {
+        Path file = write("signing.pem", pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+
+        JWK first = JwtKeyLoader.loadSigningKey(file.toString(), null, null, null);
+        JWK second = JwtKeyLoader.loadSigningKey("file:" + file, "", null, null);
+
+        assertThat(first.isPrivate()).isTrue();
+        assertThat(first.toRSAKey().toRSAPublicKey()).isEqualTo(keyPair.getPublic());
+        assertThat(first.getKeyID()).isEqualTo(first.computeThumbprint().toString());
+        assertThat(second.getKeyID()).isEqualTo(first.getKeyID());
+    }
+
+    @Test
+    void signingKeyFromInlinePemUsesConfiguredKeyId() throws Exception {
+        String pem = pem("PRIVATE KEY", keyPair.getPrivate().getEncoded());
+
+        JWK key = JwtKeyLoader.loadSigningKey(pem, "2026-10", null, null);
+
+        assertThat(key.getKeyID()).isEqualTo("2026-10");
+        assertThat(key.toRSAKey().toRSAPrivateKey()).isEqualTo(keyPair.getPrivate());
+    }
+
+    @Test
+    void verificationKeyMatchesSigningKeyId() throws Exception {
+        Path privateFile = write("signing.pem", pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+        Path publicFile = write("retired.pem", pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+
+        JWK signing = JwtKeyLoader.loadSigningKey(privateFile.toString(), null, null, null);
+        JWK verification = JwtKeyLoader.loadVerificationKey(publicFile.toString(), null);
+
+        assertThat(verification.isPrivate()).isFalse();
+        assertThat(verification.getKeyID()).isEqualTo(signing.getKeyID());
+    }
+
+    @Test
+    void ecAndEd25519KeysRecordTheirAlgorithm() throws Exception {
+        for (String family : new String[] {"EC", "Ed25519"}) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(family);
+            if (family.equals("EC")) {
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+            }
+            KeyPair pair = generator.generateKeyPair();
+            String pem = pem("PRIVATE KEY", pair.getPrivate().getEncoded())
+                + pem("PUBLIC KEY", pair.getPublic().getEncoded());
+
+            JWK key = JwtKeyLoader.loadSigningKey(pem, null, null, null);
+            JWK verification = JwtKeyLoader.loadVerificationKey(pem("PUBLIC KEY", pair.getPublic().getEncoded()), null);
+
+            assertThat(key.isPrivate()).isTrue();
+            assertThat(JwtAlgorithm.forJwk(key)).isEqualTo(family.equals("EC") ? JwtAlgorithm.ES256 : JwtAlgorithm.EdDSA);
+            assertThat(verification.getKeyID()).isEqualTo(key.getKeyID());
+        }
+    }
+
+    @Test
+    void ecKeyWithoutPublicBlockIsRejected() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        String pem = pem("PRIVATE KEY", generator.generateKeyPair().getPrivate().getEncoded());
+
+        assertThatThrownBy(() -> JwtKeyLoader.loadSigningKey(pem, null, null, null))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("add a PUBLIC KEY block");
+    }
+
+    @Test
+    void inlineVerificationKeyWithBase64PaddingIsNotSplitIntoKeyId() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair pair = generator.generateKeyPair();
+        // A P-256 SubjectPublicKeyInfo is 91 bytes, so its base64 ends in "=="
+        String pem = pem("PUBLIC KEY", pair.getPublic().getEncoded());
+        assertThat(pem).contains("==");
+
+        JWK unnamed = JwtKeyLoader.loadVerificationKeyEntry(pem);
+        JWK named = JwtKeyLoader.loadVerificationKeyEntry("previous=" + pem);
+
+        assertThat(unnamed.getKeyID()).isEqualTo(JwtKeyLoader.loadVerificationKey(pem, null).getKeyID());
+        assertThat(named.getKeyID()).isEqualTo("previous");
+        assertThat(named.toJSONObject().get("x")).isEqualTo(unnamed.toJSONObject().get("x"));
+    }
+
+    @Test
+    void verificationKeyEntryWithKeyIdLoadsFile() throws Exception {
+        Path publicFile = write("previous.pem", pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+
+        JWK key = JwtKeyLoader.loadVerificationKeyEntry(" old-key=" + publicFile + " ");
+
+        assertThat(key.getKeyID()).isEqualTo("old-key");
+        assertThat(key.isPrivate()).isFalse();
+    }
+
+    @Test
+    void signingKeyWithoutPrivateKeyIsRejected() throws Exception {
+        Path publicFile = write("public.pem", pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+
+        assertThatThrownBy(() -> JwtKeyLoader.loadSigningKey(publicFile.toString(), null, null, null))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("No PRIVATE KEY");
+    }
+
+    @Test
+    void pkcs1KeyIsRejectedWithConversionHint() {
+        String pem = pem("RSA PRIVATE KEY", new byte[] {1, 2, 3});
+
+        assertThatThrownBy(() -> JwtKeyLoader.loadSigningKey(pem, null, null, null))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("openssl pkcs8")
+            .hasMessageNotContaining("BEGIN");
+    }
+
+    private Path write(String name, String content) throws Exception {
+        return Files.writeString(tempDir.resolve(name), content);
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+            + Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(der)
+            + "\n-----END " + type + "-----\n";
+    }
+}
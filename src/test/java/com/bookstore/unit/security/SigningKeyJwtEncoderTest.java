@@ -0,0 +1,88 @@
+package com.bookstore.unit.security;
+
+import com.bookstore.security.JwkSetJwtDecoders;
+import com.bookstore.security.JwtAlgorithm;
+import com.bookstore.security.SigningKeyJwtEncoder;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SigningKeyJwtEncoderTest {
+
+    @ParameterizedTest
+    @EnumSource(JwtAlgorithm.class)
+    void tokenRoundTripsThroughDecoder(JwtAlgorithm algorithm) throws Exception {
+        JWK key = algorithm.generateKey("current");
+        SigningKeyJwtEncoder encoder = new SigningKeyJwtEncoder(key);
+        JwtDecoder decoder = JwkSetJwtDecoders.fromJwkSet(new JWKSet(key));
+
+        Jwt issued = encoder.encode(JwtEncoderParameters.from(claims()));
+        Jwt decoded = decoder.decode(issued.getTokenValue());
+
+        assertThat(issued.getHeaders()).containsEntry("alg", algorithm.getName()).containsEntry("kid", "current");
+        assertThat(decoded.getSubject()).isEqualTo("user");
+        assertThat(decoded.getClaimAsStringList("roles")).containsExactly("USER");
+        assertThat(decoded.getExpiresAt()).isEqualTo(issued.getExpiresAt());
+    }
+
+    @Test
+    void retiredKeyOfAnotherAlgorithmStillVerifies() throws Exception {
+        JWK retired = JwtAlgorithm.RS256.generateKey("retired");
+        JWK current = JwtAlgorithm.EdDSA.generateKey("current");
+        JwtDecoder decoder = JwkSetJwtDecoders.fromJwkSet(new JWKSet(List.of(current, retired.toPublicJWK())));
+
+        String oldToken = new SigningKeyJwtEncoder(retired).encode(JwtEncoderParameters.from(claims())).getTokenValue();
+        String newToken = new SigningKeyJwtEncoder(current).encode(JwtEncoderParameters.from(claims())).getTokenValue();
+
+        assertThat(decoder.decode(oldToken).getSubject()).isEqualTo("user");
+        assertThat(decoder.decode(newToken).getSubject()).isEqualTo("user");
+    }
+
+    @Test
+    void tokenFromUnknownKeyIsRejected() throws Exception {
+        JWK trusted = JwtAlgorithm.ES256.generateKey("trusted");
+        JWK stranger = JwtAlgorithm.ES256.generateKey("trusted");
+        JwtDecoder decoder = JwkSetJwtDecoders.fromJwkSet(new JWKSet(trusted));
+
+        String token = new SigningKeyJwtEncoder(stranger).encode(JwtEncoderParameters.from(claims())).getTokenValue();
+
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(BadJwtException.class);
+    }
+
+    @Test
+    void mismatchedHeaderAlgorithmIsRejected() throws Exception {
+        SigningKeyJwtEncoder encoder = new SigningKeyJwtEncoder(JwtAlgorithm.ES256.generateKey("current"));
+        JwsHeader header = JwsHeader.with(SignatureAlgorithm.RS256).build();
+
+        assertThatThrownBy(() -> encoder.encode(JwtEncoderParameters.from(header, claims())))
+            .isInstanceOf(JwtEncodingException.class);
+    }
+
+    private static JwtClaimsSet claims() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        return JwtClaimsSet.builder()
+            .issuer("bookstore-api")
+            .issuedAt(now)
+            .expiresAt(now.plusSeconds(3600))
+            .subject("user")
+            .claim("roles", List.of("USER"))
+            .build();
+    }
+}
@@ -13,6 +13,7 @@ import com.bookstore.mapper.BookMapper;
 import com.bookstore.repository.AuthorRepository;
 import com.bookstore.repository.BookRepository;
 import com.bookstore.repository.GenreRepository;
+import com.bookstore.service.MetricsService;
 import com.bookstore.service.impl.BookServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -50,6 +51,9 @@ class BookServiceImplTest {
     @Mock
     private BookMapper bookMapper;
     
+    @Mock
+    private MetricsService metricsService;
+    
     @InjectMocks
     private BookServiceImpl bookService;
     
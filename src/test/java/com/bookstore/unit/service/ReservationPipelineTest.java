@@ -0,0 +1,239 @@
+package com.bookstore.unit.service;
+
+import com.bookstore.event.StockLevelChangedEvent;
+import com.bookstore.exception.InsufficientInventoryException;
+import com.bookstore.exception.ReservationTimeoutException;
+import com.bookstore.exception.ResourceNotFoundException;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.StockLevel;
+import com.bookstore.service.impl.ReservationPipeline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationPipelineTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final UUID bookId = UUID.randomUUID();
+    private final AtomicInteger available = new AtomicInteger();
+    private final AtomicInteger updates = new AtomicInteger();
+    private Integer reorderLevel = 5;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(bookRepository.lockStockLevels(anyCollection()))
+            .thenAnswer(invocation -> List.of(stockLevel(available.get())));
+        lenient().when(bookRepository.reserveIfAvailable(eq(bookId), anyInt(), any(Instant.class)))
+            .thenAnswer(invocation -> {
+                int quantity = invocation.getArgument(1);
+                updates.incrementAndGet();
+                if (available.get() < quantity) {
+                    return 0;
+                }
+                available.addAndGet(-quantity);
+                return 1;
+            });
+    }
+
+    @Test
+    void reserve_ConcurrentRequests_ShouldAcceptInOrderUntilStockRunsOut() throws Exception {
+        available.set(10);
+        // The drainer waits until every request is queued, so all six land in one batch
+        ReservationPipeline pipeline = new ReservationPipeline(bookRepository, new TransactionTemplate(transactionManager),
+                eventPublisher, true, Duration.ZERO, 64, Duration.ofSeconds(10), Duration.ofSeconds(30)) {
+            @Override
+            protected void linger(UUID bookId, IntSupplier queuedRequests) {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (queuedRequests.getAsInt() < 6 && System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            tasks.add(() -> {
+                try {
+                    pipeline.reserve(bookId, 3);
+                    return true;
+                } catch (InsufficientInventoryException e) {
+                    return false;
+                }
+            });
+        }
+        List<Future<Boolean>> results = executor.invokeAll(tasks);
+        executor.shutdown();
+
+        long accepted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                accepted++;
+            }
+        }
+
+        assertThat(accepted).isEqualTo(3);
+        assertThat(available.get()).isEqualTo(1);
+        // The three accepted requests share one guarded update
+        assertThat(updates.get()).isEqualTo(1);
+        verify(bookRepository).reserveIfAvailable(eq(bookId), eq(9), any(Instant.class));
+    }
+
+    @Test
+    void reserve_FullBatchQueued_ShouldNotWaitForLinger() throws Exception {
+        available.set(10);
+        // Linger far beyond the test's wait: only a full batch can release the drainer in time
+        ReservationPipeline pipeline = new ReservationPipeline(bookRepository, new TransactionTemplate(transactionManager),
+                eventPublisher, true, Duration.ofMinutes(5), 3, Duration.ofMinutes(5), Duration.ofSeconds(30));
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(executor.submit(() -> pipeline.reserve(bookId, 2)));
+        }
+        executor.shutdown();
+        for (Future<?> result : results) {
+            result.get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(available.get()).isEqualTo(4);
+        verify(bookRepository).reserveIfAvailable(eq(bookId), eq(6), any(Instant.class));
+    }
+
+    @Test
+    void reserve_NotPickedUpInTime_ShouldTimeOutWithoutReserving() {
+        available.set(10);
+        CountDownLatch release = new CountDownLatch(1);
+        ReservationPipeline pipeline = new ReservationPipeline(bookRepository, new TransactionTemplate(transactionManager),
+                eventPublisher, true, Duration.ZERO, 64, Duration.ofMillis(50), Duration.ofSeconds(30)) {
+            @Override
+            protected void linger(UUID bookId, IntSupplier queuedRequests) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        try {
+            assertThatThrownBy(() -> pipeline.reserve(bookId, 2))
+                .isInstanceOf(ReservationTimeoutException.class);
+        } finally {
+            release.countDown();
+        }
+        verify(bookRepository, after(200).never()).reserveIfAvailable(any(), anyInt(), any());
+    }
+
+    @Test
+    void reserve_BatchStuckPastBatchTimeout_ShouldFailWithUnknownOutcome() {
+        available.set(10);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookRepository.lockStockLevels(anyCollection())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(stockLevel(available.get()));
+        });
+        // The drainer claims the request well within the first second, then hangs holding the "lock"
+        ReservationPipeline pipeline = new ReservationPipeline(bookRepository, new TransactionTemplate(transactionManager),
+                eventPublisher, true, Duration.ZERO, 64, Duration.ofSeconds(1), Duration.ofMillis(100));
+
+        try {
+            assertThatThrownBy(() -> pipeline.reserve(bookId, 2))
+                .isInstanceOfSatisfying(ReservationTimeoutException.class,
+                    e -> assertThat(e.isWithdrawn()).isFalse());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void reserve_InsufficientStock_ShouldRejectWithoutUpdating() {
+        available.set(1);
+        ReservationPipeline pipeline = pipeline(Duration.ZERO);
+
+        assertThatThrownBy(() -> pipeline.reserve(bookId, 2))
+            .isInstanceOf(InsufficientInventoryException.class);
+        verify(bookRepository, never()).reserveIfAvailable(any(), anyInt(), any());
+    }
+
+    @Test
+    void reserve_NullReorderLevel_ShouldStillReserve() {
+        available.set(3);
+        reorderLevel = null;
+        ReservationPipeline pipeline = pipeline(Duration.ZERO);
+
+        pipeline.reserve(bookId, 2);
+
+        assertThat(available.get()).isEqualTo(1);
+        verify(eventPublisher).publishEvent(any(StockLevelChangedEvent.class));
+    }
+
+    @Test
+    void reserve_UnknownBook_ShouldThrowNotFound() {
+        when(bookRepository.lockStockLevels(anyCollection())).thenReturn(List.of());
+        ReservationPipeline pipeline = pipeline(Duration.ZERO);
+
+        assertThatThrownBy(() -> pipeline.reserve(bookId, 1))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private ReservationPipeline pipeline(Duration linger) {
+        return new ReservationPipeline(bookRepository, new TransactionTemplate(transactionManager), eventPublisher,
+                true, linger, 64, Duration.ofSeconds(10), Duration.ofSeconds(30));
+    }
+
+    private StockLevel stockLevel(int availableQuantity) {
+        return new StockLevel() {
+            @Override
+            public UUID getId() {
+                return bookId;
+            }
+
+            @Override
+            public Integer getAvailable() {
+                return availableQuantity;
+            }
+
+            @Override
+            public Integer getReorderLevel() {
+                return reorderLevel;
+            }
+        };
+    }
+}
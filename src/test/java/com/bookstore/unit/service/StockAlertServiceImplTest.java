@@ -0,0 +1,84 @@
+package com.bookstore.unit.service;
+
+import com.bookstore.event.StockLevelChangedEvent;
+import com.bookstore.service.impl.StockAlertServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockAlertServiceImplTest {
+
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+
+    private final StockAlertServiceImpl service = new StockAlertServiceImpl(Duration.ofMinutes(1), 2) {
+        @Override
+        protected SseEmitter createEmitter(long timeoutMillis) {
+            return new SseEmitter(timeoutMillis) {
+                @Override
+                public void send(SseEventBuilder builder) {
+                    Set<DataWithMediaType> data = builder.build();
+                    sent.add(data.iterator().next().getData().toString());
+                }
+            };
+        }
+    };
+
+    @Test
+    void onStockLevelChanged_CrossingReorderLevel_ShouldNotifySubscriber() throws Exception {
+        service.subscribe(null);
+
+        service.onStockLevelChanged(new StockLevelChangedEvent(UUID.randomUUID(), 6, 5, 5));
+
+        awaitSent(1);
+        assertThat(sent).anyMatch(event -> event.contains("event:RESTOCK_NEEDED"));
+    }
+
+    @Test
+    void onStockLevelChanged_ThresholdCrossing_ShouldOnlyNotifyMatchingSubscriber() throws Exception {
+        service.subscribe(20);
+
+        service.onStockLevelChanged(new StockLevelChangedEvent(UUID.randomUUID(), 25, 15, 5));
+        service.onStockLevelChanged(new StockLevelChangedEvent(UUID.randomUUID(), 50, 40, 5));
+
+        awaitSent(1);
+        Thread.sleep(50);
+        assertThat(sent).hasSize(1);
+        assertThat(sent.get(0)).contains("event:LOW_STOCK");
+    }
+
+    @Test
+    void onStockLevelChanged_NullReorderLevel_ShouldOnlyApplySubscriberThreshold() throws Exception {
+        service.subscribe(20);
+
+        service.onStockLevelChanged(new StockLevelChangedEvent(UUID.randomUUID(), 25, 0, null));
+
+        awaitSent(1);
+        Thread.sleep(50);
+        assertThat(sent).hasSize(1);
+        assertThat(sent.get(0)).contains("event:LOW_STOCK");
+    }
+
+    @Test
+    void onStockLevelChanged_NoCrossing_ShouldNotNotify() throws Exception {
+        service.subscribe(null);
+
+        service.onStockLevelChanged(new StockLevelChangedEvent(UUID.randomUUID(), 4, 3, 5));
+
+        Thread.sleep(50);
+        assertThat(sent).isEmpty();
+    }
+
+    private void awaitSent(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (sent.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
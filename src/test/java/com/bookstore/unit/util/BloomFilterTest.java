@@ -0,0 +1,55 @@
+package com.bookstore.unit.util;
+
+import com.bookstore.util.BloomFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BloomFilterTest {
+
+    @Test
+    void addedValuesAreAlwaysFound() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        String[] values = IntStream.range(0, 1_000).mapToObj(i -> UUID.randomUUID().toString()).toArray(String[]::new);
+
+        for (String value : values) {
+            filter.add(value);
+        }
+
+        for (String value : values) {
+            assertThat(filter.mightContain(value)).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTargetAtCapacity() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.add(UUID.randomUUID().toString()));
+
+        long falsePositives = IntStream.range(0, 100_000)
+            .filter(i -> filter.mightContain(UUID.randomUUID().toString()))
+            .count();
+
+        // Target is 1%; allow generous slack so the test is not flaky
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(100, 0.001);
+
+        assertThat(filter.mightContain("")).isFalse();
+        assertThat(filter.mightContain(UUID.randomUUID().toString())).isFalse();
+        assertThat(filter.hashCount()).isEqualTo(10);
+    }
+
+    @Test
+    void invalidSizingIsRejected() {
+        assertThatThrownBy(() -> new BloomFilter(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(100, 1.0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,101 @@
+package com.bookstore.unit.util;
+
+import com.bookstore.exception.BulkheadFullException;
+import com.bookstore.util.BulkheadFilter;
+import com.bookstore.util.BulkheadFilter.Compartment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkheadFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicReference<Exception> resolved;
+    private BulkheadFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        resolved = new AtomicReference<>();
+        HandlerExceptionResolver resolver = (request, response, handler, ex) -> {
+            resolved.set(ex);
+            return null;
+        };
+        filter = new BulkheadFilter(
+            Map.of(Compartment.SEARCH, 1, Compartment.DETAIL, 1, Compartment.WRITE, 1, Compartment.BULK, 1),
+            Duration.ofMillis(20), Duration.ofSeconds(2), meterRegistry, resolver);
+    }
+
+    @Test
+    void doFilter_CompartmentFull_ShouldRejectAndCount() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = holdPermit(request("GET", "/api/books"), release);
+
+        boolean[] invoked = {false};
+        filter.doFilter(request("GET", "/api/books"), new MockHttpServletResponse(), (req, res) -> invoked[0] = true);
+
+        assertThat(invoked[0]).isFalse();
+        assertThat(resolved.get()).isInstanceOf(BulkheadFullException.class);
+        assertThat(((BulkheadFullException) resolved.get()).getRetryAfterSeconds()).isEqualTo(2);
+        assertThat(meterRegistry.get("bulkhead.rejections").tag("compartment", "search").counter().count())
+            .isEqualTo(1);
+
+        release.countDown();
+        holder.join();
+    }
+
+    @Test
+    void doFilter_OtherCompartmentFull_ShouldStillAdmit() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = holdPermit(request("GET", "/api/books"), release);
+
+        boolean[] invoked = {false};
+        filter.doFilter(request("POST", "/api/inventory/" + UUID.randomUUID() + "/reserve"),
+            new MockHttpServletResponse(), (req, res) -> invoked[0] = true);
+
+        assertThat(invoked[0]).isTrue();
+        assertThat(resolved.get()).isNull();
+
+        release.countDown();
+        holder.join();
+    }
+
+    /**
+     * Starts a request that holds its compartment's permit until {@code release} opens
+     */
+    private Thread holdPermit(MockHttpServletRequest request, CountDownLatch release) throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> {
+            try {
+                filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+                    entered.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        return holder;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        return new MockHttpServletRequest(method, uri);
+    }
+}
@@ -0,0 +1,140 @@
+package com.bookstore.unit.util;
+
+import com.bookstore.exception.IdempotentRequestTooLargeException;
+import com.bookstore.service.IdempotencyService;
+import com.bookstore.util.IdempotencyFilter;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mock;
+
+class IdempotencyFilterTest {
+
+    private AtomicReference<Exception> resolved;
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        resolved = new AtomicReference<>();
+        HandlerExceptionResolver resolver = (request, response, handler, ex) -> {
+            resolved.set(ex);
+            return null;
+        };
+        filter = new IdempotencyFilter(mock(IdempotencyService.class), resolver,
+            Duration.ofSeconds(1), DataSize.ofBytes(16));
+    }
+
+    @Test
+    void doFilter_BodyWithinLimit_ShouldPassBodyToHandler() throws Exception {
+        AtomicReference<String> seen = new AtomicReference<>();
+
+        filter.doFilter(request("{\"title\":\"x\"}"), new MockHttpServletResponse(),
+            (req, res) -> seen.set(new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8)));
+
+        assertThat(seen.get()).isEqualTo("{\"title\":\"x\"}");
+        assertThat(resolved.get()).isNull();
+    }
+
+    @Test
+    void doFilter_ContentLengthOverLimit_ShouldRejectWithoutReading() throws Exception {
+        boolean[] invoked = {false};
+
+        filter.doFilter(request("{\"title\":\"far too long\"}"), new MockHttpServletResponse(),
+            (req, res) -> invoked[0] = true);
+
+        assertThat(invoked[0]).isFalse();
+        assertThat(resolved.get()).isInstanceOf(IdempotentRequestTooLargeException.class);
+    }
+
+    @Test
+    void doFilter_ChunkedBodyOverLimit_ShouldReject() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/books") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "key-1");
+        request.setContent("{\"title\":\"far too long\"}".getBytes(StandardCharsets.UTF_8));
+        boolean[] invoked = {false};
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> invoked[0] = true);
+
+        assertThat(invoked[0]).isFalse();
+        assertThat(resolved.get()).isInstanceOf(IdempotentRequestTooLargeException.class);
+    }
+
+    @Test
+    void setReadListener_AsyncRequest_ShouldDeliverBodyThroughAsyncContext() throws Exception {
+        MockHttpServletRequest request = request("{\"title\":\"x\"}");
+        request.setAsyncSupported(true);
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        List<String> callbacks = new ArrayList<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.startAsync();
+            ServletInputStream input = req.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    callbacks.add("data");
+                    byte[] buffer = new byte[4];
+                    while (input.isReady() && !input.isFinished()) {
+                        received.write(buffer, 0, input.read(buffer));
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    callbacks.add("done");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    callbacks.add("error");
+                }
+            });
+
+            assertThatThrownBy(() -> input.setReadListener(mock(ReadListener.class)))
+                .isInstanceOf(IllegalStateException.class);
+        });
+
+        assertThat(callbacks).containsExactly("data", "done");
+        assertThat(received.toString(StandardCharsets.UTF_8)).isEqualTo("{\"title\":\"x\"}");
+    }
+
+    @Test
+    void setReadListener_SyncRequest_ShouldBeRejected() throws Exception {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        filter.doFilter(request("{}"), new MockHttpServletResponse(), (req, res) -> failure.set(
+            catchThrowable(() -> req.getInputStream().setReadListener(mock(ReadListener.class)))));
+
+        assertThat(failure.get()).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static MockHttpServletRequest request(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/books");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "key-1");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
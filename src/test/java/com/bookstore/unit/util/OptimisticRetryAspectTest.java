@@ -0,0 +1,86 @@
+package com.bookstore.unit.util;
+
+import com.bookstore.util.OptimisticRetry;
+import com.bookstore.util.OptimisticRetryAspect;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OptimisticRetryAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private FlakyWriter target;
+    private FlakyWriter proxy;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        target = new FlakyWriter();
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new OptimisticRetryAspect(meterRegistry));
+        proxy = factory.getProxy();
+    }
+
+    @Test
+    void retry_ConflictThenSuccess_ShouldReturnResultAndCountRetries() {
+        target.failuresBeforeSuccess = 2;
+
+        assertThat(proxy.write()).isEqualTo("written");
+        assertThat(target.calls.get()).isEqualTo(3);
+        assertThat(count("optimistic.lock.conflicts")).isEqualTo(2);
+        assertThat(count("optimistic.lock.retries")).isEqualTo(2);
+        assertThat(count("optimistic.lock.giveups")).isZero();
+    }
+
+    @Test
+    void retry_PersistentConflict_ShouldGiveUpAfterMaxAttempts() {
+        target.failuresBeforeSuccess = Integer.MAX_VALUE;
+
+        assertThatThrownBy(() -> proxy.write())
+            .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(target.calls.get()).isEqualTo(3);
+        assertThat(count("optimistic.lock.retries")).isEqualTo(2);
+        assertThat(count("optimistic.lock.giveups")).isEqualTo(1);
+    }
+
+    @Test
+    void retry_OtherException_ShouldNotRetry() {
+        assertThatThrownBy(() -> proxy.failWithIllegalState())
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(target.calls.get()).isEqualTo(1);
+        assertThat(count("optimistic.lock.conflicts")).isZero();
+    }
+
+    private double count(String name) {
+        var counter = meterRegistry.find(name).tag("operation", "FlakyWriter.write").counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    static class FlakyWriter {
+        final AtomicInteger calls = new AtomicInteger();
+        int failuresBeforeSuccess;
+
+        @OptimisticRetry(maxAttempts = 3, initialBackoffMs = 1, maxBackoffMs = 2)
+        public String write() {
+            if (calls.incrementAndGet() <= failuresBeforeSuccess) {
+                throw new ObjectOptimisticLockingFailureException("Book", "id");
+            }
+            return "written";
+        }
+
+        @OptimisticRetry(maxAttempts = 3, initialBackoffMs = 1, maxBackoffMs = 2)
+        public void failWithIllegalState() {
+            calls.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }
+    }
+}
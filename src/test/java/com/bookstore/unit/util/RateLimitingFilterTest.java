@@ -0,0 +1,101 @@
+package com.bookstore.unit.util;
+
+import com.bookstore.ratelimit.RateLimitProperties;
+import com.bookstore.ratelimit.VerifiedPrincipalLookup;
+import com.bookstore.util.RateLimitingFilter;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitingFilterTest {
+
+    @Test
+    void bucketShouldBeEvictedAfterTtlAndRateLimitingReset() throws Exception {
+        RateLimitingFilter filter = singleTokenFilter(null);
+        String clientIp = "127.0.0.1";
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/1");
+        request.setRemoteAddr(clientIp);
+
+        MockHttpServletResponse response1 = new MockHttpServletResponse();
+        filter.doFilter(request, response1, new MockFilterChain());
+        assertThat(response1.getStatus()).isEqualTo(200);
+
+        // Second request immediately should be rate limited
+        MockHttpServletResponse response2 = new MockHttpServletResponse();
+        filter.doFilter(request, response2, new MockFilterChain());
+        assertThat(response2.getStatus()).isEqualTo(429);
+
+        Bucket firstBucket = filter.getCache().getIfPresent(clientIp);
+
+        Thread.sleep(200); // wait for TTL expiration
+
+        MockHttpServletResponse response3 = new MockHttpServletResponse();
+        filter.doFilter(request, response3, new MockFilterChain());
+        assertThat(response3.getStatus()).isEqualTo(200);
+
+        Bucket secondBucket = filter.getCache().getIfPresent(clientIp);
+        assertThat(secondBucket).isNotSameAs(firstBucket);
+    }
+
+    @Test
+    void rejectionIsWrittenAsProblemWithoutReachingTheChain() throws Exception {
+        RateLimitingFilter filter = singleTokenFilter(null);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/1");
+        request.setRemoteAddr("203.0.113.7");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getContentType()).isEqualTo("application/problem+json");
+        assertThat(response.getHeader("X-Rate-Limit-Retry-After")).isNotBlank();
+        assertThat(response.getContentAsString())
+            .contains("\"title\":\"Rate Limit Exceeded\"")
+            .contains("\"clientIp\":\"203.0.113.7\"");
+    }
+
+    @Test
+    void verifiedPrincipalsDoNotShareTheAddressBucket() throws Exception {
+        VerifiedPrincipalLookup lookup = request -> request.getHeader("Authorization") == null ? null
+            : UsernamePasswordAuthenticationToken.authenticated("alice", null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+        RateLimitingFilter filter = singleTokenFilter(lookup);
+
+        MockHttpServletRequest anonymous = new MockHttpServletRequest("GET", "/api/books/1");
+        anonymous.setRemoteAddr("10.0.0.1");
+        filter.doFilter(anonymous, new MockHttpServletResponse(), new MockFilterChain());
+
+        MockHttpServletRequest authenticated = new MockHttpServletRequest("GET", "/api/books/1");
+        authenticated.setRemoteAddr("10.0.0.1");
+        authenticated.addHeader("Authorization", "Basic YWxpY2U6c2VjcmV0");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(authenticated, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    private static RateLimitingFilter singleTokenFilter(VerifiedPrincipalLookup lookup) {
+        return new RateLimitingFilter(Duration.ofMillis(100), 1000, RateLimitProperties.defaults(), null, lookup,
+                Jackson2ObjectMapperBuilder.json().build()) {
+            @Override
+            protected Bucket createNewBucket(long capacity) {
+                Bandwidth limit = Bandwidth.classic(1, Refill.intervally(1, Duration.ofHours(1)));
+                return Bucket.builder().addLimit(limit).build();
+            }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.bookstore.unit.util;
+
+import com.bookstore.observability.tracing.SpanRecorder;
+import com.bookstore.observability.tracing.TraceParent;
+import com.bookstore.util.TraceIdFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TraceIdFilterTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    private final SpanRecorder recorder = new SpanRecorder(16, List.of());
+
+    @Test
+    void doFilter_SampledTraceParent_ShouldRecordDespiteZeroRate() throws Exception {
+        new TraceIdFilter(recorder, 0.0).doFilter(request("01"), new MockHttpServletResponse(), (req, res) -> { });
+
+        assertThat(recorder.findTrace(TRACE_ID)).hasSize(1);
+    }
+
+    @Test
+    void doFilter_UnsampledTraceParent_ShouldNotRecordDespiteFullRate() throws Exception {
+        new TraceIdFilter(recorder, 1.0).doFilter(request("00"), new MockHttpServletResponse(), (req, res) -> { });
+
+        assertThat(recorder.findTrace(TRACE_ID)).isEmpty();
+    }
+
+    @Test
+    void doFilter_NoTraceParent_ShouldFollowSampleRate() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new TraceIdFilter(recorder, 0.0).doFilter(new MockHttpServletRequest("GET", "/api/books"), response,
+            (req, res) -> { });
+
+        assertThat(recorder.findTrace(response.getHeader("X-Trace-Id"))).isEmpty();
+    }
+
+    private static MockHttpServletRequest request(String flags) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        request.addHeader(TraceParent.HEADER, "00-" + TRACE_ID + "-00f067aa0ba902b7-" + flags);
+        return request;
+    }
+}